@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Builds an AppCDS archive for the packaged application.
+#
+# CDS cannot archive classes loaded from the nested jars of the Spring Boot fat jar,
+# so the jar is unpacked into a flat classpath first. The training run starts the
+# application, lets WarmupRunner exercise JWT/BCrypt/Jackson, then exits, and the
+# JVM writes every class it loaded into target/cds/login-service.jsa.
+set -euo pipefail
+
+JAR="target/login-service-1.0.0.jar"
+OUT="target/cds"
+
+rm -rf "$OUT"
+mkdir -p "$OUT/unpacked" "$OUT/lib"
+(cd "$OUT/unpacked" && jar xf "../../../$JAR")
+cp "$OUT"/unpacked/BOOT-INF/lib/*.jar "$OUT/lib/"
+jar cf "$OUT/login-service.jar" -C "$OUT/unpacked/BOOT-INF/classes" .
+rm -rf "$OUT/unpacked"
+
+CLASSPATH="$OUT/login-service.jar$(printf ':%s' "$OUT"/lib/*.jar)"
+echo "-cp $CLASSPATH" > "$OUT/classpath.args"
+
+java -XX:ArchiveClassesAtExit="$OUT/login-service.jsa" \
+  @"$OUT/classpath.args" \
+  com.copilot.login.LoginServiceApplication \
+  --server.port=0 --warmup.exit=true
+
+echo "CDS archive written to $OUT/login-service.jsa"
+echo "Run with: java -XX:SharedArchiveFile=$OUT/login-service.jsa @$OUT/classpath.args com.copilot.login.LoginServiceApplication"
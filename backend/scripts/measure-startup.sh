@@ -0,0 +1,79 @@
+#!/usr/bin/env bash
+# Measures startup of the login service:
+#   - time until readiness reports UP (warm-up included) and RSS at that point
+#   - time to first successful login
+#   - time to steady state: when the 50-login moving average settles within 10%
+#     of the final window (requires MongoDB, a test user is signed up first)
+#
+#   scripts/measure-startup.sh jvm      # target/login-service-1.0.0.jar
+#   scripts/measure-startup.sh aot      # same jar built with -Paot, run with spring.aot.enabled
+#   scripts/measure-startup.sh cds      # classpath and archive from -Pcds
+#   scripts/measure-startup.sh native   # target/login-service built with -Pnative native:compile
+#
+# Any extra arguments are passed through to the application.
+set -euo pipefail
+
+MODE="${1:-jvm}"
+shift || true
+PORT="${PORT:-8081}"
+LOGINS="${LOGINS:-500}"
+JAR="target/login-service-1.0.0.jar"
+BASE="http://localhost:$PORT"
+
+case "$MODE" in
+  jvm)    CMD=(java -jar "$JAR") ;;
+  aot)    CMD=(java -Dspring.aot.enabled=true -jar "$JAR") ;;
+  cds)    CMD=(java -XX:SharedArchiveFile=target/cds/login-service.jsa @target/cds/classpath.args
+               com.copilot.login.LoginServiceApplication) ;;
+  native) CMD=(./target/login-service) ;;
+  *)      echo "usage: $0 jvm|aot|cds|native [app args...]" >&2; exit 2 ;;
+esac
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+START=$(now_ms)
+"${CMD[@]}" --server.port="$PORT" "$@" > "target/startup-$MODE.log" 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null || true' EXIT
+
+until curl -sf "$BASE/actuator/health/readiness" > /dev/null; do
+  if ! kill -0 "$PID" 2>/dev/null; then
+    echo "application exited, see target/startup-$MODE.log" >&2
+    exit 1
+  fi
+  sleep 0.01
+done
+READY=$(now_ms)
+RSS_KB=$(awk '/VmRSS/ {print $2}' "/proc/$PID/status")
+
+EMAIL="startup-$(date +%s%N)@example.com"
+BODY="{\"email\":\"$EMAIL\",\"password\":\"startup-password\"}"
+curl -sf -o /dev/null -H 'Content-Type: application/json' \
+  -d "{\"email\":\"$EMAIL\",\"password\":\"startup-password\",\"firstName\":\"Start\",\"lastName\":\"Up\"}" \
+  "$BASE/api/auth/signup"
+
+SAMPLES="target/startup-$MODE-logins.txt"
+: > "$SAMPLES"
+for _ in $(seq "$LOGINS"); do
+  curl -sf -o /dev/null -w '%{time_total}\n' -H 'Content-Type: application/json' -d "$BODY" \
+    "$BASE/api/auth/login" >> "$SAMPLES"
+done
+DONE=$(now_ms)
+
+echo "$MODE: ready after $(( READY - START )) ms, RSS $(( RSS_KB / 1024 )) MB"
+awk -v ready="$(( READY - START ))" '
+  { t[NR] = $1 * 1000; elapsed[NR] = (NR > 1 ? elapsed[NR - 1] : 0) + t[NR] }
+  END {
+    w = 50
+    for (i = NR - w + 1; i <= NR; i++) final += t[i]
+    final /= w
+    for (i = NR; i >= w; i--) {
+      avg = 0
+      for (j = i - w + 1; j <= i; j++) avg += t[j]
+      avg /= w
+      if (avg > final * 1.1) break
+      steady = i - w + 1
+    }
+    printf "first login %.1f ms after ready (%.0f ms from start)\n", t[1], ready + t[1]
+    printf "steady state from login #%d, %.0f ms after ready, %.1f ms/login\n", steady, elapsed[steady], final
+  }' "$SAMPLES"
@@ -0,0 +1,207 @@
+package com.copilot.login.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records login and signup outcomes without touching MongoDB on the request path.
+ * Callers only enqueue into a bounded ring buffer; a background writer inserts the
+ * events into a capped collection in batches.
+ */
+@Slf4j
+@Component
+public class AuditLog implements SmartLifecycle {
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${audit.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${audit.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    @Value("${audit.collection:auth_events}")
+    private String collection;
+
+    @Value("${audit.collection-max-bytes:104857600}")
+    private long collectionMaxBytes;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private AuditEventBuffer buffer;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        buffer = new AuditEventBuffer(bufferSize);
+
+        FunctionCounter.builder("auth.audit.published", published, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("auth.audit.written", written, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("auth.audit.dropped", dropped, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("auth.audit.failed", failed, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("auth.audit.lag", this, AuditLog::getLag)
+                .description("Events accepted but not yet written")
+                .register(meterRegistry);
+    }
+
+    public void record(AuthEventType type, String email, String reason) {
+        if (!enabled) {
+            return;
+        }
+        AuthEvent event = new AuthEvent(type, email, reason, System.currentTimeMillis());
+        if (buffer.offer(event) || (overflowPolicy == OverflowPolicy.BLOCK && offerBlocking(event))) {
+            published.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getLag() {
+        return buffer.size();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    // Below the web server's phases (graceful shutdown at DEFAULT_PHASE - 1024, stop at
+    // DEFAULT_PHASE - 2048), so events from requests drained during shutdown are still written
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private boolean offerBlocking(AuthEvent event) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            if (buffer.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeLoop() {
+        ensureCollection();
+        List<AuthEvent> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0;
+
+        while (running || buffer.size() > 0) {
+            int before = batch.size();
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (before == 0 && !batch.isEmpty()) {
+                batchStartedAt = System.currentTimeMillis();
+            }
+
+            boolean full = batch.size() >= batchSize;
+            boolean due = !batch.isEmpty() && System.currentTimeMillis() - batchStartedAt >= flushIntervalMs;
+            if (full || due || (!running && !batch.isEmpty())) {
+                write(batch);
+                batch.clear();
+            } else {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(flushIntervalMs, 100)));
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<AuthEvent> batch) {
+        try {
+            mongoTemplate.insert(batch, collection);
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.warn("Failed to write {} audit events: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void ensureCollection() {
+        try {
+            if (!mongoTemplate.collectionExists(collection)) {
+                mongoTemplate.createCollection(collection,
+                        CollectionOptions.empty().capped().size(collectionMaxBytes));
+            }
+        } catch (Exception e) {
+            log.warn("Could not create capped audit collection {}: {}", collection, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.copilot.login.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthEvent {
+
+    private AuthEventType type;
+
+    private String email;
+
+    private String reason;
+
+    private Long timestamp;
+
+}
@@ -0,0 +1,8 @@
+package com.copilot.login.audit;
+
+public enum AuthEventType {
+    LOGIN_SUCCESS,
+    LOGIN_FAILURE,
+    SIGNUP_SUCCESS,
+    SIGNUP_FAILURE
+}
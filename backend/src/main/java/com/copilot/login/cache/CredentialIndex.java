@@ -0,0 +1,193 @@
+package com.copilot.login.cache;
+
+import com.copilot.login.model.User;
+import com.mongodb.client.model.Projections;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory copy of every default-tenant user's login credentials, held off-heap in an
+ * {@link OffHeapCredentialTable} so that millions of users do not add to GC work.
+ * It is loaded by streaming the users collection, kept current through the users change
+ * stream plus write-through on signup. While the stream lags by more than
+ * {@code user-change-stream.max-lag-ms}, only entries written within {@code credential-index.ttl-ms}
+ * are served and callers refresh the rest from MongoDB. Misses are not authoritative (a user
+ * may have signed up on another instance a moment ago), so callers read MongoDB for them.
+ */
+@Slf4j
+@Component
+public class CredentialIndex implements UserChangeListener {
+
+    @Value("${credential-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${credential-index.segments:64}")
+    private int segments;
+
+    @Value("${credential-index.initial-capacity:65536}")
+    private int initialCapacity;
+
+    @Value("${credential-index.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    @Value("${credential-index.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${user-change-stream.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private volatile OffHeapCredentialTable table;
+
+    private volatile long syncedAt;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isServing() {
+        return enabled && table != null;
+    }
+
+    /**
+     * Returns the user for a login if this index holds it; callers check {@link #isServing()} first.
+     */
+    public Optional<User> find(String email) {
+        OffHeapCredentialTable current = table;
+        if (current == null || email == null) {
+            return Optional.empty();
+        }
+        OffHeapCredentialTable.Entry entry = current.get(email);
+        if (entry == null || (isLagging() && System.currentTimeMillis() - entry.writtenAt() > ttlMs)) {
+            return Optional.empty();
+        }
+
+        User user = new User();
+        user.setId(new ObjectId(entry.id()).toHexString());
+        user.setEmail(entry.email());
+        user.setPassword(entry.passwordHash());
+        user.setFirstName(entry.firstName());
+        user.setLastName(entry.lastName());
+        user.setActive(entry.active());
+        return Optional.of(user);
+    }
+
+    /**
+     * Write-through for users saved by this instance, so they can log in before the change
+     * stream event arrives.
+     */
+    public void put(User user) {
+        OffHeapCredentialTable current = table;
+        if (current != null && user.getTenant() == null) {
+            put(current, user.getId(), user.getEmail(), user.getPassword(), !Boolean.FALSE.equals(user.getActive()),
+                    user.getFirstName(), user.getLastName());
+        }
+    }
+
+    /**
+     * Stores a user just read from MongoDB; only done while lagging, when the change stream
+     * cannot be relied on to have the newer state.
+     */
+    public void refresh(User user) {
+        if (isLagging()) {
+            put(user);
+        }
+    }
+
+    public boolean isLagging() {
+        return System.currentTimeMillis() - syncedAt > maxLagMs;
+    }
+
+    public long size() {
+        OffHeapCredentialTable current = table;
+        return current == null ? 0 : current.size();
+    }
+
+    public long offHeapBytes() {
+        OffHeapCredentialTable current = table;
+        return current == null ? 0 : current.offHeapBytes();
+    }
+
+    @Override
+    public void onReset() {
+        long started = System.currentTimeMillis();
+        OffHeapCredentialTable loaded = new OffHeapCredentialTable(segments, initialCapacity);
+        for (Document user : mongoTemplate.getCollection("users")
+                .find()
+                .projection(Projections.include("email", "password", "firstName", "lastName", "active", "tenant"))
+                .batchSize(loadBatchSize)) {
+            putDocument(loaded, user);
+        }
+        table = loaded;
+        log.info("Loaded {} users into credential index in {} ms ({} bytes off-heap)",
+                loaded.size(), System.currentTimeMillis() - started, loaded.offHeapBytes());
+    }
+
+    @Override
+    public void onChanges(List<UserChange> changes) {
+        OffHeapCredentialTable current = table;
+        if (current == null) {
+            return;
+        }
+        for (UserChange change : changes) {
+            if (change.type() == UserChange.Type.DELETE) {
+                if (ObjectId.isValid(change.userId())) {
+                    current.removeById(new ObjectId(change.userId()).toByteArray());
+                }
+                continue;
+            }
+            if (change.type() == UserChange.Type.UPDATE && ObjectId.isValid(change.userId())) {
+                // The email may have changed, which leaves the old entry under another key
+                OffHeapCredentialTable.Entry existing = current.get(String.valueOf(change.user().get("email")));
+                if (existing == null || !new ObjectId(existing.id()).toHexString().equals(change.userId())) {
+                    current.removeById(new ObjectId(change.userId()).toByteArray());
+                }
+            }
+            putDocument(current, change.user());
+        }
+    }
+
+    @Override
+    public void onSynced(long syncedAt) {
+        this.syncedAt = syncedAt;
+    }
+
+    private void putDocument(OffHeapCredentialTable target, Document user) {
+        if (user.get("tenant") != null || !(user.get("_id") instanceof ObjectId id)) {
+            return;
+        }
+        put(target, id.toHexString(), user.getString("email"), user.getString("password"),
+                !Boolean.FALSE.equals(user.getBoolean("active")), user.getString("firstName"), user.getString("lastName"));
+    }
+
+    private void put(OffHeapCredentialTable target, String id, String email, String passwordHash,
+                     boolean active, String firstName, String lastName) {
+        if (email == null || passwordHash == null) {
+            return;
+        }
+        if (!ObjectId.isValid(id) || passwordHash.length() != OffHeapCredentialTable.BCRYPT_LENGTH) {
+            // Not representable in a slot; the miss sends this user's logins to MongoDB
+            target.remove(email);
+            return;
+        }
+        try {
+            target.put(email, new ObjectId(id).toByteArray(), passwordHash, active, firstName, lastName,
+                    System.currentTimeMillis());
+        } catch (IllegalArgumentException e) {
+            // A profile field too long for the table; logins fall back to MongoDB as above
+            target.remove(email);
+        }
+    }
+
+}
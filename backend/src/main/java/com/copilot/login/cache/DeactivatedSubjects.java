@@ -0,0 +1,275 @@
+package com.copilot.login.cache;
+
+import com.copilot.login.config.TenancyProperties;
+import com.copilot.login.repository.TenantRouter;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deactivated users keyed by (tenant, email), so token validation can reject them without
+ * a database read. Each tenant's users are held as a sorted array of 64-bit email hashes
+ * that is replaced on every change (deactivations are rare, lookups happen on every request).
+ *
+ * <p>Default-tenant users are loaded at startup and kept current by the users change stream;
+ * while the stream is down or lagging they are reloaded every
+ * {@code deactivated-subjects.refresh-interval-ms}. Tenant collections are not streamed,
+ * so they are reloaded on that interval regardless.
+ */
+@Slf4j
+@Component
+public class DeactivatedSubjects implements UserChangeListener, SmartLifecycle {
+
+    private static final String DEFAULT_TENANT = "";
+
+    private static final String ACTIVE_INDEX = "active_false";
+
+    @Value("${deactivated-subjects.enabled:true}")
+    private boolean enabled;
+
+    @Value("${deactivated-subjects.refresh-interval-ms:30000}")
+    private long refreshIntervalMs;
+
+    @Value("${user-change-stream.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${user.store.type:mongo}")
+    private String storeType;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TenantRouter tenantRouter;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    private volatile Map<String, long[]> hashesByTenant = Map.of();
+
+    private volatile long syncedAt;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled && "mongo".equals(storeType);
+    }
+
+    public boolean contains(String email) {
+        return contains(null, email);
+    }
+
+    public boolean contains(String tenant, String email) {
+        long[] current = hashesByTenant.get(key(tenant));
+        return current != null && email != null && Arrays.binarySearch(current, hash(email)) >= 0;
+    }
+
+    public int size() {
+        int size = 0;
+        for (long[] hashes : hashesByTenant.values()) {
+            size += hashes.length;
+        }
+        return size;
+    }
+
+    public void add(String email) {
+        add(null, email);
+    }
+
+    public synchronized void add(String tenant, String email) {
+        long hash = hash(email);
+        long[] current = hashesByTenant.getOrDefault(key(tenant), new long[0]);
+        int index = Arrays.binarySearch(current, hash);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = hash;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        replace(key(tenant), updated);
+    }
+
+    public void remove(String email) {
+        remove(null, email);
+    }
+
+    public synchronized void remove(String tenant, String email) {
+        long[] current = hashesByTenant.get(key(tenant));
+        int index = current == null ? -1 : Arrays.binarySearch(current, hash(email));
+        if (index < 0) {
+            return;
+        }
+        long[] updated = new long[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        replace(key(tenant), updated);
+    }
+
+    public void reload() {
+        reloadDefaultTenant();
+        reloadTenants();
+    }
+
+    // Holds the monitor for the whole scan so a change applied by onChanges meanwhile is not overwritten
+    private synchronized void reloadDefaultTenant() {
+        long started = System.currentTimeMillis();
+        long[] loaded = scan(mongoTemplate, TenantRouter.DEFAULT_COLLECTION,
+                Filters.and(Filters.eq("active", false), Filters.exists("tenant", false)));
+        replace(DEFAULT_TENANT, loaded);
+        log.debug("Loaded {} deactivated users in {} ms", loaded.length, System.currentTimeMillis() - started);
+    }
+
+    private void reloadTenants() {
+        for (String tenant : tenancyProperties.getTenants().keySet()) {
+            try {
+                TenantRouter.Route route = tenantRouter.route(tenant);
+                long[] loaded = scan(route.template(), route.collection(), Filters.eq("active", false));
+                synchronized (this) {
+                    replace(tenant, loaded);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to reload deactivated users of tenant {}: {}", tenant, e.getMessage());
+            }
+        }
+    }
+
+    private static long[] scan(MongoTemplate template, String collection, Bson filter) {
+        long[] loaded = new long[64];
+        int count = 0;
+        for (Document user : template.getCollection(collection).find(filter).projection(Projections.include("email"))) {
+            String email = user.getString("email");
+            if (email != null) {
+                if (count == loaded.length) {
+                    loaded = Arrays.copyOf(loaded, count * 2);
+                }
+                loaded[count++] = hash(email);
+            }
+        }
+        long[] sorted = Arrays.copyOf(loaded, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Only deactivated users are indexed, so the reload query never scans the collection
+    private static void ensureActiveIndex(MongoTemplate template, String collection) {
+        template.indexOps(collection).ensureIndex(new Index()
+                .on("active", Sort.Direction.ASC)
+                .named(ACTIVE_INDEX)
+                .partial(PartialIndexFilter.of(Criteria.where("active").is(false))));
+    }
+
+    private void replace(String tenant, long[] hashes) {
+        Map<String, long[]> updated = new HashMap<>(hashesByTenant);
+        updated.put(tenant, hashes);
+        hashesByTenant = Map.copyOf(updated);
+    }
+
+    @Override
+    public void onReset() {
+        reloadDefaultTenant();
+    }
+
+    @Override
+    public synchronized void onChanges(List<UserChange> changes) {
+        for (UserChange change : changes) {
+            // Deletes carry no email; a deleted user cannot log in anyway and is gone on the next reload
+            if (change.user() == null) {
+                continue;
+            }
+            String email = change.user().getString("email");
+            if (email == null) {
+                continue;
+            }
+            String tenant = change.user().getString("tenant");
+            if (Boolean.FALSE.equals(change.user().getBoolean("active"))) {
+                add(tenant, email);
+            } else if (change.type() == UserChange.Type.UPDATE) {
+                remove(tenant, email);
+            }
+        }
+    }
+
+    @Override
+    public void onSynced(long syncedAt) {
+        this.syncedAt = syncedAt;
+    }
+
+    private void refresh() {
+        try {
+            if (System.currentTimeMillis() - syncedAt > maxLagMs) {
+                reloadDefaultTenant();
+            }
+            reloadTenants();
+        } catch (Exception e) {
+            log.warn("Failed to reload deactivated users: {}", e.getMessage());
+        }
+    }
+
+    private static String key(String tenant) {
+        return tenant == null ? DEFAULT_TENANT : tenant;
+    }
+
+    static long hash(String email) {
+        return OffHeapCredentialTable.hash(email.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            ensureActiveIndex(mongoTemplate, TenantRouter.DEFAULT_COLLECTION);
+            for (String tenant : tenancyProperties.getTenants().keySet()) {
+                TenantRouter.Route route = tenantRouter.route(tenant);
+                ensureActiveIndex(route.template(), route.collection());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to ensure the active index on user collections: {}", e.getMessage());
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deactivated-subjects-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        scheduler = null;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+}
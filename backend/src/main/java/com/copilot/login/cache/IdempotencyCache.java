@@ -0,0 +1,109 @@
+package com.copilot.login.cache;
+
+import com.copilot.login.deadline.DeadlineExceededException;
+import com.copilot.login.deadline.RequestDeadline;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of an operation per client-supplied idempotency key for a while,
+ * so a retried request gets the original result without repeating the work. A retry that
+ * arrives while the first attempt is still running waits for it. Failures are not kept,
+ * which lets the client retry them. Each key is bound to a fingerprint of the request it
+ * was first used with.
+ */
+public class IdempotencyCache<T> {
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final ConcurrentHashMap<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    public IdempotencyCache(int maxSize, long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+    }
+
+    public T execute(String key, String fingerprint, Supplier<T> operation) {
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+
+        Entry<T> created = new Entry<>(fingerprint, System.currentTimeMillis() + ttlMs);
+        Entry<T> existing = entries.compute(key, (k, current) ->
+                current == null || current.isExpired() ? created : current);
+        if (existing != created) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyConflictException();
+            }
+            return await(existing.result);
+        }
+
+        try {
+            T result = operation.get();
+            created.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private T await(CompletableFuture<T> result) {
+        try {
+            long remainingMs = RequestDeadline.remainingMillis();
+            return remainingMs == Long.MAX_VALUE ? result.get() : result.get(remainingMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("idempotent replay");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void evict() {
+        entries.values().removeIf(Entry::isExpired);
+
+        // Still full: drop an arbitrary tenth of the completed entries
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<Map.Entry<String, Entry<T>>> iterator = entries.entrySet().iterator();
+        while (toRemove > 0 && iterator.hasNext()) {
+            if (iterator.next().getValue().result.isDone()) {
+                iterator.remove();
+                toRemove--;
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.copilot.login.cache;
+
+/**
+ * Thrown when an idempotency key is reused with a different request.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException() {
+        super("Idempotency key was already used for a different request");
+    }
+
+}
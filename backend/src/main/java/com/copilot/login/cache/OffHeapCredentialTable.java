@@ -0,0 +1,415 @@
+package com.copilot.login.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash table of login credentials kept in direct (off-heap) buffers.
+ * The table is split into segments by the high bits of the email hash, each with its
+ * own lock, slot buffer and profile arena. A slot is a fixed 104 bytes:
+ *
+ * <pre>
+ *  0  long   email hash (0 = never used)
+ *  8  byte   state (1 = live, 2 = deleted)
+ *  9  byte   active flag
+ * 10  12 B   ObjectId
+ * 24  int    profile offset in the arena
+ * 28  int    profile length
+ * 32  long   time the entry was written
+ * 40  60 B   BCrypt hash
+ * </pre>
+ *
+ * The profile (email, first name, last name) is stored in the arena with a 2-byte length
+ * before each field, so no field may exceed {@link #MAX_FIELD_BYTES}; the email is compared on lookup so hash collisions never return another user. An update
+ * rewrites the profile in place when it fits; otherwise the old bytes become waste, and a
+ * segment is compacted once waste exceeds half of its arena.
+ */
+public class OffHeapCredentialTable {
+
+    public static final int BCRYPT_LENGTH = 60;
+    public static final int ID_LENGTH = 12;
+    public static final int MAX_FIELD_BYTES = Short.MAX_VALUE;
+
+    static final int SLOT_SIZE = 104;
+    private static final int HASH = 0;
+    private static final int STATE = 8;
+    private static final int ACTIVE = 9;
+    private static final int ID = 10;
+    private static final int PROFILE_OFFSET = 24;
+    private static final int PROFILE_LENGTH = 28;
+    private static final int WRITTEN_AT = 32;
+    private static final int PASSWORD = 40;
+
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+    private static final double MAX_LOAD = 0.7;
+    private static final double MAX_ARENA_WASTE = 0.5;
+    private static final int MIN_COMPACT_BYTES = 4096;
+
+    public record Entry(byte[] id, String email, String passwordHash, boolean active,
+                        String firstName, String lastName, long writtenAt) {
+    }
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    public OffHeapCredentialTable(int segmentCount, int initialCapacity) {
+        int count = Integer.highestOneBit(Math.max(1, segmentCount));
+        segments = new Segment[count];
+        segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+        int perSegment = Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity / count)) << 1);
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public Entry get(String email) {
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(emailBytes);
+        return segmentFor(hash).get(hash, emailBytes);
+    }
+
+    public void put(String email, byte[] id, String passwordHash, boolean active,
+                    String firstName, String lastName, long writtenAt) {
+        if (id.length != ID_LENGTH || passwordHash.length() != BCRYPT_LENGTH) {
+            throw new IllegalArgumentException("Unsupported id or password hash format");
+        }
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(emailBytes);
+        byte[] profile = encodeProfile(emailBytes, firstName, lastName);
+        segmentFor(hash).put(hash, emailBytes, id, passwordHash.getBytes(StandardCharsets.US_ASCII),
+                active, profile, writtenAt);
+    }
+
+    public boolean remove(String email) {
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(emailBytes);
+        return segmentFor(hash).remove(hash, emailBytes);
+    }
+
+    // Full scan; only used for deletes and email changes, where the old email is unknown
+    public int removeById(byte[] id) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            removed += segment.removeById(id);
+        }
+        return removed;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    static long hash(byte[] bytes) {
+        // FNV-1a followed by the MurmurHash3 finalizer for well-spread high and low bits
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private static byte[] encodeProfile(byte[] email, String firstName, String lastName) {
+        byte[] first = firstName == null ? null : firstName.getBytes(StandardCharsets.UTF_8);
+        byte[] last = lastName == null ? null : lastName.getBytes(StandardCharsets.UTF_8);
+        if (email.length > MAX_FIELD_BYTES || (first != null && first.length > MAX_FIELD_BYTES)
+                || (last != null && last.length > MAX_FIELD_BYTES)) {
+            throw new IllegalArgumentException("Profile field longer than " + MAX_FIELD_BYTES + " bytes");
+        }
+        ByteBuffer profile = ByteBuffer.allocate(6 + email.length
+                + (first == null ? 0 : first.length) + (last == null ? 0 : last.length));
+        putField(profile, email);
+        putField(profile, first);
+        putField(profile, last);
+        return profile.array();
+    }
+
+    private static void putField(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+        private ByteBuffer slots;
+        private int capacity;
+        private int live;
+        private int deleted;
+        private ByteBuffer arena;
+        private int arenaUsed;
+        private int arenaWasted;
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+            this.arena = ByteBuffer.allocateDirect(capacity * 32);
+        }
+
+        private Entry get(long hash, byte[] email) {
+            long stamp = lock.readLock();
+            try {
+                int slot = find(hash, email);
+                return slot < 0 ? null : read(slot);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void put(long hash, byte[] email, byte[] id, byte[] password, boolean active,
+                         byte[] profile, long writtenAt) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(hash, email);
+                int profileOffset;
+                if (slot < 0) {
+                    if (live + deleted + 1 > capacity * MAX_LOAD) {
+                        rehash(live + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+                    }
+                    slot = freeSlot(hash);
+                    if (slots.get(slot * SLOT_SIZE + STATE) == DELETED) {
+                        deleted--;
+                    }
+                    live++;
+                    profileOffset = appendProfile(profile);
+                } else {
+                    int base = slot * SLOT_SIZE;
+                    int oldLength = slots.getInt(base + PROFILE_LENGTH);
+                    if (profile.length <= oldLength) {
+                        profileOffset = slots.getInt(base + PROFILE_OFFSET);
+                        arena.put(profileOffset, profile);
+                        arenaWasted += oldLength - profile.length;
+                    } else {
+                        arenaWasted += oldLength;
+                        profileOffset = appendProfile(profile);
+                    }
+                }
+                write(slot, hash, id, password, active, profileOffset, profile.length, writtenAt);
+                compactIfWasteful();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private boolean remove(long hash, byte[] email) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(hash, email);
+                if (slot < 0) {
+                    return false;
+                }
+                markDeleted(slot);
+                compactIfWasteful();
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int removeById(byte[] id) {
+            long stamp = lock.writeLock();
+            try {
+                int removed = 0;
+                byte[] slotId = new byte[ID_LENGTH];
+                for (int slot = 0; slot < capacity; slot++) {
+                    int base = slot * SLOT_SIZE;
+                    if (slots.get(base + STATE) == LIVE) {
+                        slots.get(base + ID, slotId);
+                        if (Arrays.equals(slotId, id)) {
+                            markDeleted(slot);
+                            removed++;
+                        }
+                    }
+                }
+                if (removed > 0) {
+                    compactIfWasteful();
+                }
+                return removed;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int size() {
+            long stamp = lock.readLock();
+            try {
+                return live;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private long offHeapBytes() {
+            long stamp = lock.readLock();
+            try {
+                return (long) slots.capacity() + arena.capacity();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private int find(long hash, byte[] email) {
+            int mask = capacity - 1;
+            for (int slot = (int) (hash & mask), probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+                int base = slot * SLOT_SIZE;
+                long slotHash = slots.getLong(base + HASH);
+                if (slotHash == 0) {
+                    return -1;
+                }
+                if (slotHash == hash && slots.get(base + STATE) == LIVE && emailMatches(base, email)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private int freeSlot(long hash) {
+            int mask = capacity - 1;
+            int slot = (int) (hash & mask);
+            while (slots.get(slot * SLOT_SIZE + STATE) == LIVE) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private boolean emailMatches(int base, byte[] email) {
+            int offset = slots.getInt(base + PROFILE_OFFSET);
+            if (arena.getShort(offset) != email.length) {
+                return false;
+            }
+            for (int i = 0; i < email.length; i++) {
+                if (arena.get(offset + 2 + i) != email[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Entry read(int slot) {
+            int base = slot * SLOT_SIZE;
+            byte[] id = new byte[ID_LENGTH];
+            slots.get(base + ID, id);
+            byte[] password = new byte[BCRYPT_LENGTH];
+            slots.get(base + PASSWORD, password);
+
+            int offset = slots.getInt(base + PROFILE_OFFSET);
+            String[] profile = new String[3];
+            for (int i = 0; i < profile.length; i++) {
+                short length = arena.getShort(offset);
+                offset += 2;
+                if (length >= 0) {
+                    byte[] value = new byte[length];
+                    arena.get(offset, value);
+                    profile[i] = new String(value, StandardCharsets.UTF_8);
+                    offset += length;
+                }
+            }
+
+            return new Entry(id, profile[0], new String(password, StandardCharsets.US_ASCII),
+                    slots.get(base + ACTIVE) == 1, profile[1], profile[2], slots.getLong(base + WRITTEN_AT));
+        }
+
+        private void write(int slot, long hash, byte[] id, byte[] password, boolean active,
+                           int profileOffset, int profileLength, long writtenAt) {
+            int base = slot * SLOT_SIZE;
+            slots.putLong(base + HASH, hash);
+            slots.put(base + STATE, LIVE);
+            slots.put(base + ACTIVE, (byte) (active ? 1 : 0));
+            slots.put(base + ID, id);
+            slots.putInt(base + PROFILE_OFFSET, profileOffset);
+            slots.putInt(base + PROFILE_LENGTH, profileLength);
+            slots.putLong(base + WRITTEN_AT, writtenAt);
+            slots.put(base + PASSWORD, password);
+        }
+
+        private void markDeleted(int slot) {
+            slots.put(slot * SLOT_SIZE + STATE, DELETED);
+            arenaWasted += slots.getInt(slot * SLOT_SIZE + PROFILE_LENGTH);
+            live--;
+            deleted++;
+        }
+
+        private int appendProfile(byte[] profile) {
+            if (arenaUsed + profile.length > arena.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(arena.capacity() * 2, arenaUsed + profile.length));
+                grown.put(0, arena, 0, arenaUsed);
+                arena = grown;
+            }
+            int offset = arenaUsed;
+            arena.put(offset, profile);
+            arenaUsed += profile.length;
+            return offset;
+        }
+
+        private void compactIfWasteful() {
+            if (arenaUsed >= MIN_COMPACT_BYTES && arenaWasted > arenaUsed * MAX_ARENA_WASTE) {
+                rehash(capacity);
+            }
+        }
+
+        // Rebuilds slots and arena, dropping deleted slots and profiles that were overwritten
+        private void rehash(int newCapacity) {
+            ByteBuffer oldSlots = slots;
+            ByteBuffer oldArena = arena;
+            int oldCapacity = capacity;
+
+            capacity = newCapacity;
+            slots = ByteBuffer.allocateDirect(newCapacity * SLOT_SIZE);
+            arena = ByteBuffer.allocateDirect(Math.max(2 * (arenaUsed - arenaWasted), 16));
+            arenaUsed = 0;
+            arenaWasted = 0;
+            live = 0;
+            deleted = 0;
+
+            byte[] id = new byte[ID_LENGTH];
+            byte[] password = new byte[BCRYPT_LENGTH];
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                int base = slot * SLOT_SIZE;
+                if (oldSlots.get(base + STATE) != LIVE) {
+                    continue;
+                }
+                long hash = oldSlots.getLong(base + HASH);
+                oldSlots.get(base + ID, id);
+                oldSlots.get(base + PASSWORD, password);
+                int profileLength = oldSlots.getInt(base + PROFILE_LENGTH);
+                byte[] profile = new byte[profileLength];
+                oldArena.get(oldSlots.getInt(base + PROFILE_OFFSET), profile);
+
+                int newSlot = freeSlot(hash);
+                write(newSlot, hash, id, password, oldSlots.get(base + ACTIVE) == 1,
+                        appendProfile(profile), profileLength, oldSlots.getLong(base + WRITTEN_AT));
+                live++;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.copilot.login.cache;
+
+import org.bson.Document;
+
+/**
+ * One change to the users collection. {@code user} is the full document after the change
+ * and is null for deletes.
+ */
+public record UserChange(Type type, String userId, Document user) {
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.copilot.login.cache;
+
+import java.util.List;
+
+/**
+ * Receives changes to the default tenant's users collection from {@link UserChangeStream}.
+ * Callbacks run on the stream's single thread, in commit order.
+ */
+public interface UserChangeListener {
+
+    boolean isEnabled();
+
+    /**
+     * Earlier changes may have been missed (first start, lost resume point, collection
+     * dropped): rebuild from the collection.
+     */
+    void onReset();
+
+    void onChanges(List<UserChange> changes);
+
+    /**
+     * Every change committed up to {@code syncedAt} (epoch millis) has been delivered.
+     * Called after each batch and whenever the stream is idle; when the calls stop, the
+     * stream is lagging or down.
+     */
+    void onSynced(long syncedAt);
+
+}
@@ -0,0 +1,345 @@
+package com.copilot.login.cache;
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Follows the users collection with a MongoDB change stream and delivers changes in
+ * batches to the registered {@link UserChangeListener}s, so caches on every instance see
+ * writes made by the others. The resume token is stored per node after each batch; a
+ * reconnect resumes from it instead of making listeners reload. Offsets not updated for
+ * {@code user-change-stream.offset-ttl-ms} are removed by a TTL index, so nodes that are
+ * gone for good (such as pods with generated hostnames) do not accumulate.
+ *
+ * <p>Change streams need a replica set or sharded cluster. On a standalone server the
+ * stream keeps failing to open and listeners fall back to their own expiry.
+ */
+@Slf4j
+@Component
+public class UserChangeStream implements SmartLifecycle, HealthIndicator {
+
+    private static final Status LAGGING = new Status("LAGGING");
+
+    @Value("${user.store.type:mongo}")
+    private String storeType;
+
+    @Value("${user-change-stream.batch-size:500}")
+    private int batchSize;
+
+    @Value("${user-change-stream.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${user-change-stream.retry-interval-ms:10000}")
+    private long retryIntervalMs;
+
+    @Value("${user-change-stream.offsets-collection:change_stream_offsets}")
+    private String offsetsCollection;
+
+    @Value("${user-change-stream.token-persist-interval-ms:1000}")
+    private long tokenPersistIntervalMs;
+
+    @Value("${user-change-stream.node-id:${HOSTNAME:login-service}}")
+    private String nodeId;
+
+    @Value("${user-change-stream.offset-ttl-ms:604800000}")
+    private long offsetTtlMs;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private List<UserChangeListener> listeners;
+
+    private volatile boolean running;
+
+    private volatile boolean active;
+
+    private volatile long syncedAt;
+
+    private volatile long appliedCount;
+
+    private BsonDocument resumeToken;
+
+    private long tokenPersistedAt;
+
+    private boolean listenersLoaded;
+
+    private Thread watcher;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("users.change-stream.lag", this, UserChangeStream::getLagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Milliseconds since the stream was last known to be caught up, or 0 if it never ran.
+     */
+    public long getLagMillis() {
+        long synced = syncedAt;
+        return synced == 0 ? 0 : Math.max(0, System.currentTimeMillis() - synced);
+    }
+
+    @Override
+    public Health health() {
+        if (!running) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        long lag = getLagMillis();
+        return Health.status(active && lag <= maxLagMs ? Status.UP : LAGGING)
+                .withDetail("active", active)
+                .withDetail("lagMs", lag)
+                .withDetail("applied", appliedCount)
+                .build();
+    }
+
+    private void watch() {
+        ensureOffsetTtlIndex();
+        resumeToken = loadResumeToken();
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                // The cursor is open before any reload, so writes made during the reload
+                // are replayed afterwards and the newest state wins
+                if (!listenersLoaded) {
+                    forEachListener(UserChangeListener::onReset);
+                    listenersLoaded = true;
+                }
+                active = true;
+                log.info("Following users change stream{}", resumeToken == null ? "" : " from stored resume token");
+
+                while (running) {
+                    poll(cursor);
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("Users change stream interrupted, retrying in {} ms: {}", retryIntervalMs, e.getMessage());
+                }
+            }
+
+            active = false;
+            if (running) {
+                try {
+                    Thread.sleep(retryIntervalMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        if (resumeToken != null) {
+            try {
+                return mongoTemplate.getCollection("users").watch()
+                        .fullDocument(FullDocument.UPDATE_LOOKUP)
+                        .maxAwaitTime(1, TimeUnit.SECONDS)
+                        .resumeAfter(resumeToken)
+                        .cursor();
+            } catch (Exception e) {
+                // Typically the token fell off the oplog; start over with a full reload
+                log.warn("Cannot resume users change stream, reloading: {}", e.getMessage());
+                resumeToken = null;
+                listenersLoaded = false;
+            }
+        }
+        return mongoTemplate.getCollection("users").watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .cursor();
+    }
+
+    private void poll(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        long polledAt = System.currentTimeMillis();
+        ChangeStreamDocument<Document> event = cursor.tryNext();
+        if (event == null) {
+            // Waited up to maxAwaitTime without news: caught up as of the poll
+            synced(polledAt);
+            return;
+        }
+
+        // Take whatever is already buffered, without waiting for another getMore
+        List<UserChange> batch = new ArrayList<>();
+        BsonTimestamp clusterTime = null;
+        while (event != null) {
+            clusterTime = event.getClusterTime();
+            UserChange change = toChange(event);
+            if (change == null) {
+                apply(batch, cursor);
+                // drop, rename and invalidate end the stream; the next open reloads
+                resumeToken = null;
+                listenersLoaded = false;
+                throw new IllegalStateException("Users collection " + event.getOperationType().getValue());
+            }
+            batch.add(change);
+            event = batch.size() < batchSize && cursor.available() > 0 ? cursor.next() : null;
+        }
+
+        apply(batch, cursor);
+        synced(clusterTime == null ? polledAt : TimeUnit.SECONDS.toMillis(clusterTime.getTime()));
+    }
+
+    private void apply(List<UserChange> batch, MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        forEachListener(listener -> listener.onChanges(batch));
+        appliedCount += batch.size();
+        resumeToken = cursor.getResumeToken();
+        persistResumeToken(false);
+    }
+
+    private void synced(long time) {
+        syncedAt = Math.max(syncedAt, time);
+        long synced = syncedAt;
+        forEachListener(listener -> listener.onSynced(synced));
+    }
+
+    private static UserChange toChange(ChangeStreamDocument<Document> event) {
+        switch (event.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                String userId = idOf(event.getDocumentKey().get("_id"));
+                Document user = event.getFullDocument();
+                if (user == null) {
+                    // Deleted again before the lookup ran
+                    return new UserChange(UserChange.Type.DELETE, userId, null);
+                }
+                return new UserChange(event.getOperationType() == OperationType.INSERT
+                        ? UserChange.Type.INSERT : UserChange.Type.UPDATE, userId, user);
+            }
+            case DELETE -> {
+                return new UserChange(UserChange.Type.DELETE, idOf(event.getDocumentKey().get("_id")), null);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    // An offset older than the oplog window could not be resumed from anyway
+    private void ensureOffsetTtlIndex() {
+        try {
+            mongoTemplate.indexOps(offsetsCollection).ensureIndex(new Index()
+                    .on("updatedAt", Sort.Direction.ASC)
+                    .expire(offsetTtlMs, TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            log.warn("Cannot create the change stream offsets TTL index: {}", e.getMessage());
+        }
+    }
+
+    private BsonDocument loadResumeToken() {
+        try {
+            BsonDocument offset = offsets().find(Filters.eq("_id", nodeId)).first();
+            return offset == null ? null : offset.getDocument("token", null);
+        } catch (Exception e) {
+            log.warn("Cannot read users change stream resume token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void persistResumeToken(boolean force) {
+        long now = System.currentTimeMillis();
+        if (resumeToken == null || (!force && now - tokenPersistedAt < tokenPersistIntervalMs)) {
+            return;
+        }
+        try {
+            offsets().replaceOne(Filters.eq("_id", nodeId),
+                    new BsonDocument("_id", new BsonString(nodeId))
+                            .append("token", resumeToken)
+                            .append("updatedAt", new BsonDateTime(now)),
+                    new ReplaceOptions().upsert(true));
+            tokenPersistedAt = now;
+        } catch (Exception e) {
+            log.warn("Cannot store users change stream resume token: {}", e.getMessage());
+        }
+    }
+
+    private MongoCollection<BsonDocument> offsets() {
+        return mongoTemplate.getCollection(offsetsCollection).withDocumentClass(BsonDocument.class);
+    }
+
+    private void forEachListener(Consumer<UserChangeListener> action) {
+        for (UserChangeListener listener : listeners) {
+            if (listener.isEnabled()) {
+                action.accept(listener);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!"mongo".equals(storeType) || listeners.stream().noneMatch(UserChangeListener::isEnabled)) {
+            return;
+        }
+        running = true;
+        watcher = new Thread(this::watch, "user-change-stream");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = watcher;
+        watcher = null;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            persistResumeToken(true);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+}
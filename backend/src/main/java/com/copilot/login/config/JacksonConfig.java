@@ -0,0 +1,18 @@
+package com.copilot.login.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective getter/setter calls with generated lambdas for DTOs
+    // that do not have a hand-written serializer
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.copilot.login.config;
+
+import com.copilot.login.dto.IntrospectionRequest;
+import com.copilot.login.dto.IntrospectionResponse;
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.dto.LoginResponse;
+import com.copilot.login.dto.SessionSummary;
+import com.copilot.login.dto.SignupRequest;
+import com.copilot.login.dto.SignupResponse;
+import com.copilot.login.dto.TokenIntrospection;
+import com.copilot.login.model.Session;
+import com.copilot.login.model.User;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.LoginServiceRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class LoginServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+        // Lombok beans bound by Jackson and the Mongo-mapped User
+        private static final List<Class<?>> BOUND_TYPES = List.of(
+                LoginRequest.class,
+                LoginResponse.class,
+                SignupRequest.class,
+                SignupResponse.class,
+                IntrospectionRequest.class,
+                IntrospectionResponse.class,
+                TokenIntrospection.class,
+                SessionSummary.class,
+                Session.class,
+                User.class
+        );
+
+        // JJWT resolves its implementation classes by name at runtime
+        private static final List<String> JJWT_TYPES = List.of(
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+                "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+                "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyOperations",
+                "io.jsonwebtoken.impl.security.KeysBridge",
+                "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        );
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> type : BOUND_TYPES) {
+                hints.reflection().registerType(type,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.Serializer");
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.Deserializer");
+        }
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.copilot.login.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "tenancy")
+public class TenancyProperties {
+
+    private String defaultTenant = "default";
+
+    private Map<String, Tenant> tenants = new HashMap<>();
+
+    @Data
+    public static class Tenant {
+
+        // Separate cluster and connection pool; blank shares the application's client
+        private String uri;
+
+        // Defaults to the database in the uri, or the application's database
+        private String database;
+
+        // Defaults to users_<tenant>
+        private String collection;
+
+    }
+
+}
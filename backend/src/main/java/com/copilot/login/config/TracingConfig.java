@@ -0,0 +1,37 @@
+package com.copilot.login.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+import java.nio.file.Paths;
+
+/**
+ * MongoDB command spans (as children of the current request's span) and an optional
+ * span exporter writing JSON lines to a local file. Sampling is controlled by
+ * {@code management.tracing.sampling.probability}; incoming W3C {@code traceparent}
+ * headers are honoured by the parent-based sampler.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.file.enabled", havingValue = "true")
+    public SpanExporter fileSpanExporter(@Value("${tracing.file.path:traces/spans.jsonl}") String path) {
+        return new FileSpanExporter(Paths.get(path));
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.copilot.login.config;
+
+import com.copilot.login.repository.EmbeddedUserStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class UserStoreConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "user.store.type", havingValue = "embedded")
+    public EmbeddedUserStore embeddedUserStore(@Value("${user.store.embedded.path:}") String path) {
+        return new EmbeddedUserStore(path);
+    }
+
+}
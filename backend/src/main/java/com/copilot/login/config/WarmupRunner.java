@@ -0,0 +1,113 @@
+package com.copilot.login.config;
+
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.dto.LoginResponse;
+import com.copilot.login.dto.SignupRequest;
+import com.copilot.login.model.User;
+import com.copilot.login.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exercises the JWT, BCrypt and JSON paths with synthetic input before the
+ * application reports itself ready, so the first real logins run compiled code.
+ * Readiness only switches to ACCEPTING_TRAFFIC after all runners have returned.
+ */
+@Slf4j
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.jwt-iterations:2000}")
+    private int jwtIterations;
+
+    @Value("${warmup.bcrypt-iterations:5}")
+    private int bcryptIterations;
+
+    @Value("${warmup.json-iterations:5000}")
+    private int jsonIterations;
+
+    // Used by the CDS training run: warm up, then exit so the archive is written
+    @Value("${warmup.exit:false}")
+    private boolean exitAfterWarmup;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    private volatile boolean completed;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (enabled) {
+            long start = System.currentTimeMillis();
+            warmUpJwt();
+            warmUpPasswordEncoder();
+            warmUpJson();
+            log.info("Warm-up finished in {} ms", System.currentTimeMillis() - start);
+        }
+        completed = true;
+
+        if (exitAfterWarmup) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private void warmUpJwt() {
+        User user = new User();
+        user.setId("000000000000000000000000");
+        user.setEmail("warmup@example.invalid");
+        user.setFirstName("Warm");
+        user.setLastName("Up");
+
+        for (int i = 0; i < jwtIterations; i++) {
+            String token = jwtTokenProvider.generateToken(user);
+            jwtTokenProvider.getEmailFromToken(token);
+        }
+        jwtTokenProvider.validateToken("invalid.token.value");
+    }
+
+    private void warmUpPasswordEncoder() {
+        for (int i = 0; i < bcryptIterations; i++) {
+            String hash = passwordEncoder.encode("warmup-password-" + i);
+            passwordEncoder.matches("warmup-password-" + i, hash);
+        }
+    }
+
+    private void warmUpJson() throws Exception {
+        byte[] login = objectMapper.writeValueAsBytes(new LoginRequest("warmup@example.invalid", "password"));
+        byte[] signup = objectMapper.writeValueAsBytes(
+                new SignupRequest("warmup@example.invalid", "password", "Warm", "Up"));
+        LoginResponse response = new LoginResponse("header.payload.signature", "warmup@example.invalid",
+                "Warm", "Up", jwtTokenProvider.getExpirationTime());
+
+        for (int i = 0; i < jsonIterations; i++) {
+            objectMapper.readValue(login, LoginRequest.class);
+            objectMapper.readValue(signup, SignupRequest.class);
+            objectMapper.writeValueAsBytes(response);
+        }
+    }
+
+}
@@ -1,43 +1,109 @@
 package com.copilot.login.controller;
 
+import com.copilot.login.cache.IdempotencyKeyConflictException;
+import com.copilot.login.deadline.DeadlineExceededException;
+import com.copilot.login.dto.IntrospectionRequest;
+import com.copilot.login.dto.IntrospectionResponse;
 import com.copilot.login.dto.LoginRequest;
 import com.copilot.login.dto.LoginResponse;
+import com.copilot.login.dto.SessionSummary;
 import com.copilot.login.dto.SignupRequest;
 import com.copilot.login.dto.SignupResponse;
 import com.copilot.login.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/auth")
-@CrossOrigin(origins = "*", maxAge = 3600)
 public class AuthController {
 
     @Autowired
     private AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest request,
+                                               @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent) {
         try {
-            LoginResponse response = authService.login(request);
+            LoginResponse response = authService.login(request, userAgent);
             return ResponseEntity.ok(response);
+        } catch (DeadlineExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<SignupResponse> signup(@RequestBody SignupRequest request) {
+    public ResponseEntity<SignupResponse> signup(@RequestBody SignupRequest request,
+                                                 @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            SignupResponse response = authService.signup(request);
+            SignupResponse response = authService.signup(request, idempotencyKey);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (DeadlineExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IdempotencyKeyConflictException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @PostMapping("/introspect")
+    public ResponseEntity<IntrospectionResponse> introspect(@RequestBody IntrospectionRequest request) {
+        try {
+            IntrospectionResponse response = authService.introspect(request);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
 
+    @GetMapping("/sessions")
+    public ResponseEntity<List<SessionSummary>> sessions(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        try {
+            return ResponseEntity.ok(authService.listSessions(bearerToken(authorization)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    public ResponseEntity<Void> revokeSession(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @PathVariable String id) {
+        boolean revoked;
+        try {
+            revoked = authService.revokeSession(bearerToken(authorization), id);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return revoked ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/sessions")
+    public ResponseEntity<Void> revokeAllSessions(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        try {
+            authService.revokeAllSessions(bearerToken(authorization));
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    private static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        return authorization.substring("Bearer ".length()).trim();
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Login service is running");
@@ -0,0 +1,12 @@
+package com.copilot.login.deadline;
+
+/**
+ * Thrown when a request's deadline passes before a stage of its work starts or completes.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String stage) {
+        super("Deadline exceeded before " + stage);
+    }
+
+}
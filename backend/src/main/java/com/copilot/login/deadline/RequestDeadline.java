@@ -0,0 +1,48 @@
+package com.copilot.login.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the request handled by the current thread, set by
+ * {@link com.copilot.login.web.RequestDeadlineFilter}. Stages check it before starting
+ * expensive work so requests the client has already given up on are abandoned early.
+ * Without a deadline every check passes.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(long timeoutMs) {
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    /**
+     * Milliseconds left, 0 once expired, or {@code Long.MAX_VALUE} without a deadline.
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    public static boolean isExpired() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline != null && System.nanoTime() - deadline >= 0;
+    }
+
+    public static void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.copilot.login.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Streaming serializers and deserializers for the login and signup DTOs.
+ * These sit on every auth request, so they skip reflective bean binding and
+ * write field names from pre-encoded constants.
+ */
+@JsonComponent
+public class AuthDtoJsonComponent {
+
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString PASSWORD = new SerializedString("password");
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+    private static final SerializedString TOKEN = new SerializedString("token");
+    private static final SerializedString EXPIRES_IN = new SerializedString("expiresIn");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString TENANT = new SerializedString("tenant");
+
+    public static class LoginRequestSerializer extends JsonSerializer<LoginRequest> {
+        @Override
+        public void serialize(LoginRequest value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(value);
+            writeString(gen, EMAIL, value.getEmail());
+            writeString(gen, PASSWORD, value.getPassword());
+            writeOptionalString(gen, TENANT, value.getTenant());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class LoginRequestDeserializer extends JsonDeserializer<LoginRequest> {
+        @Override
+        public LoginRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            LoginRequest request = new LoginRequest();
+            for (String name = firstField(p, ctxt, LoginRequest.class); name != null; name = p.nextFieldName()) {
+                switch (name) {
+                    case "email" -> request.setEmail(readString(p, ctxt));
+                    case "password" -> request.setPassword(readString(p, ctxt));
+                    case "tenant" -> request.setTenant(readString(p, ctxt));
+                    default -> skipValue(p);
+                }
+            }
+            return request;
+        }
+    }
+
+    public static class LoginResponseSerializer extends JsonSerializer<LoginResponse> {
+        @Override
+        public void serialize(LoginResponse value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(value);
+            writeString(gen, TOKEN, value.getToken());
+            writeString(gen, EMAIL, value.getEmail());
+            writeString(gen, FIRST_NAME, value.getFirstName());
+            writeString(gen, LAST_NAME, value.getLastName());
+            gen.writeFieldName(EXPIRES_IN);
+            if (value.getExpiresIn() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(value.getExpiresIn());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    public static class LoginResponseDeserializer extends JsonDeserializer<LoginResponse> {
+        @Override
+        public LoginResponse deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            LoginResponse response = new LoginResponse();
+            for (String name = firstField(p, ctxt, LoginResponse.class); name != null; name = p.nextFieldName()) {
+                switch (name) {
+                    case "token" -> response.setToken(readString(p, ctxt));
+                    case "email" -> response.setEmail(readString(p, ctxt));
+                    case "firstName" -> response.setFirstName(readString(p, ctxt));
+                    case "lastName" -> response.setLastName(readString(p, ctxt));
+                    case "expiresIn" -> response.setExpiresIn(readLong(p, ctxt));
+                    default -> skipValue(p);
+                }
+            }
+            return response;
+        }
+    }
+
+    public static class SignupRequestSerializer extends JsonSerializer<SignupRequest> {
+        @Override
+        public void serialize(SignupRequest value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(value);
+            writeString(gen, EMAIL, value.getEmail());
+            writeString(gen, PASSWORD, value.getPassword());
+            writeString(gen, FIRST_NAME, value.getFirstName());
+            writeString(gen, LAST_NAME, value.getLastName());
+            writeOptionalString(gen, TENANT, value.getTenant());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class SignupRequestDeserializer extends JsonDeserializer<SignupRequest> {
+        @Override
+        public SignupRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            SignupRequest request = new SignupRequest();
+            for (String name = firstField(p, ctxt, SignupRequest.class); name != null; name = p.nextFieldName()) {
+                switch (name) {
+                    case "email" -> request.setEmail(readString(p, ctxt));
+                    case "password" -> request.setPassword(readString(p, ctxt));
+                    case "firstName" -> request.setFirstName(readString(p, ctxt));
+                    case "lastName" -> request.setLastName(readString(p, ctxt));
+                    case "tenant" -> request.setTenant(readString(p, ctxt));
+                    default -> skipValue(p);
+                }
+            }
+            return request;
+        }
+    }
+
+    public static class SignupResponseSerializer extends JsonSerializer<SignupResponse> {
+        @Override
+        public void serialize(SignupResponse value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(value);
+            writeString(gen, ID, value.getId());
+            writeString(gen, EMAIL, value.getEmail());
+            writeString(gen, FIRST_NAME, value.getFirstName());
+            writeString(gen, LAST_NAME, value.getLastName());
+            writeString(gen, MESSAGE, value.getMessage());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class SignupResponseDeserializer extends JsonDeserializer<SignupResponse> {
+        @Override
+        public SignupResponse deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            SignupResponse response = new SignupResponse();
+            for (String name = firstField(p, ctxt, SignupResponse.class); name != null; name = p.nextFieldName()) {
+                switch (name) {
+                    case "id" -> response.setId(readString(p, ctxt));
+                    case "email" -> response.setEmail(readString(p, ctxt));
+                    case "firstName" -> response.setFirstName(readString(p, ctxt));
+                    case "lastName" -> response.setLastName(readString(p, ctxt));
+                    case "message" -> response.setMessage(readString(p, ctxt));
+                    default -> skipValue(p);
+                }
+            }
+            return response;
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, SerializedString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static void writeOptionalString(JsonGenerator gen, SerializedString name, String value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeString(value);
+        }
+    }
+
+    private static String firstField(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            return p.nextFieldName();
+        }
+        if (token == JsonToken.FIELD_NAME) {
+            return p.currentName();
+        }
+        if (token == JsonToken.END_OBJECT) {
+            return null;
+        }
+        return ctxt.reportInputMismatch(type, "Expected JSON object for %s", type.getSimpleName());
+    }
+
+    private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            return ctxt.reportInputMismatch(String.class, "Expected string for field '%s'", p.currentName());
+        }
+        return p.getText();
+    }
+
+    private static Long readLong(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            return ctxt.reportInputMismatch(Long.class, "Expected number for field '%s'", p.currentName());
+        }
+        return p.getValueAsLong();
+    }
+
+    private static void skipValue(JsonParser p) throws IOException {
+        p.nextToken();
+        p.skipChildren();
+    }
+
+}
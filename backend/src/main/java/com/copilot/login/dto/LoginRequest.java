@@ -10,4 +10,9 @@ import lombok.NoArgsConstructor;
 public class LoginRequest {
     private String email;
     private String password;
+    private String tenant;
+
+    public LoginRequest(String email, String password) {
+        this(email, password, null);
+    }
 }
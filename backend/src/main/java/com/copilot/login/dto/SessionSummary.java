@@ -0,0 +1,16 @@
+package com.copilot.login.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSummary {
+    private String id;
+    private String device;
+    private Long createdAt;
+    private Long expiresAt;
+    private boolean current;
+}
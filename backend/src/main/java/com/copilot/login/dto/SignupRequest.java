@@ -12,4 +12,9 @@ public class SignupRequest {
     private String password;
     private String firstName;
     private String lastName;
+    private String tenant;
+
+    public SignupRequest(String email, String password, String firstName, String lastName) {
+        this(email, password, firstName, lastName, null);
+    }
 }
@@ -0,0 +1,45 @@
+package com.copilot.login.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable: one instance is cached per verified token and shared by every request for it
+@Value
+public class TokenIntrospection {
+    boolean active;
+    String subject;
+    Long expiresAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Map<String, Object> claims;
+
+    // jti and iat, kept for session revocation checks on cached tokens
+    @JsonIgnore
+    String sessionId;
+
+    @JsonIgnore
+    Long issuedAt;
+
+    public TokenIntrospection(boolean active, String subject, Long expiresAt, Map<String, Object> claims,
+                              String sessionId, Long issuedAt) {
+        this.active = active;
+        this.subject = subject;
+        this.expiresAt = expiresAt;
+        this.claims = claims == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(claims));
+        this.sessionId = sessionId;
+        this.issuedAt = issuedAt;
+    }
+
+    public TokenIntrospection(boolean active, String subject, Long expiresAt, Map<String, Object> claims) {
+        this(active, subject, expiresAt, claims, null, null);
+    }
+
+    public static TokenIntrospection inactive() {
+        return new TokenIntrospection(false, null, null, null);
+    }
+}
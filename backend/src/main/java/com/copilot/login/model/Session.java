@@ -0,0 +1,45 @@
+package com.copilot.login.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+
+/**
+ * A login session, identified by the {@code jti} of the token issued for it. Field names
+ * are shortened because every login adds a document. MongoDB removes documents once
+ * {@code expiresAt} has passed (TTL index).
+ */
+@Document(collection = "sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Session {
+
+    @Id
+    private String id;
+
+    // Tenant-qualified email, the key sessions are listed and revoked by
+    @Field("s")
+    private String subject;
+
+    @Field("u")
+    private String userId;
+
+    @Field("d")
+    private String device;
+
+    @Field("c")
+    private Long createdAt;
+
+    @Field("e")
+    private Date expiresAt;
+
+    @Field("r")
+    private Long revokedAt;
+
+}
@@ -31,4 +31,16 @@ public class User {
 
     private Long updatedAt = System.currentTimeMillis();
 
+    private Long lastLoginAt;
+
+    private Long loginCount = 0L;
+
+    // Null for the default tenant
+    private String tenant;
+
+    public User(String id, String email, String password, String firstName, String lastName,
+                Boolean active, Long createdAt, Long updatedAt) {
+        this(id, email, password, firstName, lastName, active, createdAt, updatedAt, null, 0L, null);
+    }
+
 }
@@ -0,0 +1,49 @@
+package com.copilot.login.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * JFR event for one stage of a login or signup (user lookup, password hash, token signing,
+ * user save). Disabled events cost next to nothing, so the stages are always instrumented.
+ */
+@Name("com.copilot.login.AuthStage")
+@Label("Auth Stage")
+@Description("Duration of one stage of a login or signup request")
+@Category({"Login Service", "Auth"})
+@StackTrace(false)
+public class AuthStageEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Failed")
+    boolean failed;
+
+    public static <T> T record(String operation, String stage, Supplier<T> work) {
+        AuthStageEvent event = new AuthStageEvent();
+        event.begin();
+        try {
+            return work.get();
+        } catch (RuntimeException e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.stage = stage;
+                event.commit();
+            }
+        }
+    }
+
+}
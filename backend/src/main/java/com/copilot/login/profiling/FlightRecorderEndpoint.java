@@ -0,0 +1,82 @@
+package com.copilot.login.profiling;
+
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code /actuator/flightrecorder}: list recordings (GET), start an on-demand recording
+ * (POST with {@code name}, {@code settings} and {@code durationSeconds}; an empty name or
+ * settings, or a duration of 0, selects the default), download a dump of any recording including the rolling one (GET /{id}) and
+ * stop one (DELETE /{id}). Not exposed over HTTP by default; when it is, it requires
+ * HTTP Basic credentials (see {@code SecurityConfig}).
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    @Autowired
+    private FlightRecorderService flightRecorderService;
+
+    public record RecordingInfo(long id, String name, String state, Long startTime, Long durationSeconds,
+                                long maxAgeSeconds, long size) {
+
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(
+                    recording.getId(),
+                    recording.getName(),
+                    recording.getState().name(),
+                    recording.getStartTime() == null ? null : recording.getStartTime().toEpochMilli(),
+                    recording.getDuration() == null ? null : recording.getDuration().toSeconds(),
+                    recording.getMaxAge() == null ? 0 : recording.getMaxAge().toSeconds(),
+                    recording.getSize()
+            );
+        }
+    }
+
+    @ReadOperation
+    public List<RecordingInfo> recordings() {
+        return flightRecorderService.getRecordings().stream().map(RecordingInfo::of).toList();
+    }
+
+    @WriteOperation
+    public RecordingInfo start(String name, String settings, long durationSeconds) {
+        if (durationSeconds < 0) {
+            throw new InvalidEndpointRequestException("durationSeconds must not be negative", "Negative duration");
+        }
+        Duration duration = durationSeconds == 0 ? null : Duration.ofSeconds(durationSeconds);
+        return RecordingInfo.of(flightRecorderService.start(emptyToNull(name), emptyToNull(settings), duration));
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isBlank() ? null : value;
+    }
+
+    // The dump file is deleted as soon as the response has been written (or aborted)
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource dump(@Selector long id) throws IOException {
+        Path file = flightRecorderService.dump(id);
+        return new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE));
+    }
+
+    @DeleteOperation
+    public void stop(@Selector long id) {
+        flightRecorderService.close(id);
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.copilot.login.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Keeps a bounded rolling JFR recording running (last {@code jfr.continuous.max-age}, at
+ * most {@code jfr.continuous.max-size} bytes) and manages on-demand recordings. Dumps are
+ * plain .jfr files that JDK Mission Control or {@code jfr print} can open offline; they are
+ * written to {@code jfr.dump-directory} only until they have been streamed to the caller.
+ */
+@Slf4j
+@Component
+public class FlightRecorderService implements SmartLifecycle {
+
+    public static final String CONTINUOUS_NAME = "login-continuous";
+
+    private static final String DUMP_PREFIX = "login-dump-";
+
+    @Value("${jfr.continuous.enabled:true}")
+    private boolean continuousEnabled;
+
+    @Value("${jfr.continuous.settings:default}")
+    private String continuousSettings;
+
+    @Value("${jfr.continuous.max-age:30m}")
+    private Duration continuousMaxAge;
+
+    @Value("${jfr.continuous.max-size:67108864}")
+    private long continuousMaxSize;
+
+    @Value("${jfr.dump-directory:jfr}")
+    private String dumpDirectory;
+
+    @Value("${jfr.max-duration:10m}")
+    private Duration maxDuration;
+
+    private volatile Recording continuous;
+
+    public List<Recording> getRecordings() {
+        return FlightRecorder.isAvailable() ? FlightRecorder.getFlightRecorder().getRecordings() : List.of();
+    }
+
+    public Recording find(long id) {
+        return getRecordings().stream()
+                .filter(recording -> recording.getId() == id)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No recording " + id));
+    }
+
+    /**
+     * Starts an on-demand recording that stops by itself after {@code duration}
+     * (capped at {@code jfr.max-duration}).
+     */
+    public Recording start(String name, String settings, Duration duration) {
+        Recording recording = new Recording(configuration(settings == null ? "profile" : settings));
+        recording.setName(name == null ? "login-on-demand" : name);
+        recording.setDuration(duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+        recording.setToDisk(true);
+        recording.start();
+        log.info("Started JFR recording {} ({})", recording.getId(), recording.getName());
+        return recording;
+    }
+
+    /**
+     * Dumps a recording to a temporary file in {@code jfr.dump-directory}. The caller owns
+     * the file and must delete it once it has been sent.
+     */
+    public Path dump(long id) throws IOException {
+        Recording recording = find(id);
+        if (recording.getState() == RecordingState.NEW) {
+            throw new IllegalStateException("Recording " + id + " has not started");
+        }
+        Path directory = Paths.get(dumpDirectory);
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, DUMP_PREFIX + recording.getId() + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        log.info("Dumped JFR recording {} to {}", id, file.toAbsolutePath());
+        return file;
+    }
+
+    public void close(long id) {
+        find(id).close();
+    }
+
+    public Recording getContinuous() {
+        return continuous;
+    }
+
+    private static Configuration configuration(String settings) {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings " + settings, e);
+        }
+    }
+
+    // Dumps left behind by a crash or an aborted download
+    private void deleteStaleDumps() {
+        Path directory = Paths.get(dumpDirectory);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> dumps = Files.newDirectoryStream(directory, DUMP_PREFIX + "*.jfr")) {
+            for (Path dump : dumps) {
+                Files.deleteIfExists(dump);
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up JFR dumps in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        deleteStaleDumps();
+        if (!continuousEnabled || !FlightRecorder.isAvailable()) {
+            return;
+        }
+        Recording recording = new Recording(configuration(continuousSettings));
+        recording.setName(CONTINUOUS_NAME);
+        recording.setMaxAge(continuousMaxAge);
+        recording.setMaxSize(continuousMaxSize);
+        recording.setToDisk(true);
+        recording.start();
+        continuous = recording;
+    }
+
+    @Override
+    public void stop() {
+        Recording recording = continuous;
+        continuous = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return continuous != null;
+    }
+
+}
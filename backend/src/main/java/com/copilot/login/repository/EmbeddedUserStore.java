@@ -0,0 +1,193 @@
+package com.copilot.login.repository;
+
+import com.copilot.login.model.User;
+import org.bson.types.ObjectId;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * UserStore backed by an embedded, memory-mapped MapDB file, for single-node
+ * deployments, tests and benchmarks that should not depend on MongoDB.
+ * An empty path keeps everything on the heap.
+ */
+public class EmbeddedUserStore implements UserStore, AutoCloseable {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final DB db;
+    private final HTreeMap<String, byte[]> usersById;
+    private final HTreeMap<String, String> idsByEmail;
+
+    public EmbeddedUserStore(String path) {
+        if (path == null || path.isBlank()) {
+            db = DBMaker.memoryDB().make();
+        } else {
+            File file = new File(path);
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            db = DBMaker.fileDB(file)
+                    .fileMmapEnableIfSupported()
+                    .transactionEnable()
+                    .make();
+        }
+        usersById = db.hashMap("users", Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+        idsByEmail = db.hashMap("users_by_email", Serializer.STRING, Serializer.STRING).createOrOpen();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String tenant, String email) {
+        String id = idsByEmail.get(emailKey(tenant, email));
+        if (id == null) {
+            return Optional.empty();
+        }
+        byte[] encoded = usersById.get(id);
+        return encoded == null ? Optional.empty() : Optional.of(decode(encoded));
+    }
+
+    @Override
+    public boolean existsByEmail(String tenant, String email) {
+        return idsByEmail.containsKey(emailKey(tenant, email));
+    }
+
+    // Writes are serialized so the email index stays unique
+    @Override
+    public synchronized User save(User user) {
+        if (user.getId() == null) {
+            user.setId(new ObjectId().toHexString());
+        }
+
+        String key = emailKey(user.getTenant(), user.getEmail());
+        String existingId = idsByEmail.get(key);
+        if (existingId != null && !existingId.equals(user.getId())) {
+            throw new DuplicateKeyException("Email already exists");
+        }
+
+        byte[] previous = usersById.get(user.getId());
+        if (previous != null) {
+            User stored = decode(previous);
+            String previousKey = emailKey(stored.getTenant(), stored.getEmail());
+            if (!previousKey.equals(key)) {
+                idsByEmail.remove(previousKey);
+            }
+        }
+
+        usersById.put(user.getId(), encode(user));
+        idsByEmail.put(key, user.getId());
+        db.commit();
+        return user;
+    }
+
+    @Override
+    public synchronized void updateLoginActivity(String tenant, List<LoginActivityUpdate> updates) {
+        for (LoginActivityUpdate update : updates) {
+            byte[] encoded = usersById.get(update.userId());
+            if (encoded == null) {
+                continue;
+            }
+            User user = decode(encoded);
+            long lastLoginAt = user.getLastLoginAt() == null ? 0 : user.getLastLoginAt();
+            user.setLastLoginAt(Math.max(lastLoginAt, update.lastLoginAt()));
+            user.setLoginCount((user.getLoginCount() == null ? 0 : user.getLoginCount()) + update.loginCount());
+            usersById.put(user.getId(), encode(user));
+        }
+        db.commit();
+    }
+
+    public long count() {
+        return usersById.size();
+    }
+
+    @Override
+    public void close() {
+        db.close();
+    }
+
+    private static String emailKey(String tenant, String email) {
+        return (tenant == null ? "" : tenant) + '\u0000' + email;
+    }
+
+    static byte[] encode(User user) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, user.getId());
+            writeString(out, user.getEmail());
+            writeString(out, user.getPassword());
+            writeString(out, user.getFirstName());
+            writeString(out, user.getLastName());
+            out.writeBoolean(user.getActive() == null || user.getActive());
+            writeLong(out, user.getCreatedAt());
+            writeLong(out, user.getUpdatedAt());
+            writeLong(out, user.getLastLoginAt());
+            writeLong(out, user.getLoginCount());
+            writeString(out, user.getTenant());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static User decode(byte[] encoded) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported user record version " + version);
+            }
+            User user = new User();
+            user.setId(readString(in));
+            user.setEmail(readString(in));
+            user.setPassword(readString(in));
+            user.setFirstName(readString(in));
+            user.setLastName(readString(in));
+            user.setActive(in.readBoolean());
+            user.setCreatedAt(readLong(in));
+            user.setUpdatedAt(readLong(in));
+            user.setLastLoginAt(readLong(in));
+            user.setLoginCount(readLong(in));
+            user.setTenant(readString(in));
+            return user;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.copilot.login.repository;
+
+import com.copilot.login.deadline.RequestDeadline;
+import com.copilot.login.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@ConditionalOnProperty(name = "user.store.type", havingValue = "mongo", matchIfMissing = true)
+public class MongoUserStore implements UserStore {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TenantRouter tenantRouter;
+
+    @Override
+    public Optional<User> findByEmail(String tenant, String email) {
+        long remainingMs = RequestDeadline.remainingMillis();
+        if (tenantRouter.isDefault(tenant) && remainingMs == Long.MAX_VALUE) {
+            return userRepository.findByEmail(email);
+        }
+        TenantRouter.Route route = tenantRouter.route(tenant);
+        try {
+            return Optional.ofNullable(route.template().findOne(byEmail(email, remainingMs), User.class, route.collection()));
+        } catch (DataAccessException e) {
+            RequestDeadline.check("user lookup");
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String tenant, String email) {
+        long remainingMs = RequestDeadline.remainingMillis();
+        if (tenantRouter.isDefault(tenant) && remainingMs == Long.MAX_VALUE) {
+            return userRepository.existsByEmail(email);
+        }
+        TenantRouter.Route route = tenantRouter.route(tenant);
+        try {
+            return route.template().exists(byEmail(email, remainingMs), User.class, route.collection());
+        } catch (DataAccessException e) {
+            RequestDeadline.check("user lookup");
+            throw e;
+        }
+    }
+
+    @Override
+    public User save(User user) {
+        if (tenantRouter.isDefault(user.getTenant())) {
+            return userRepository.save(user);
+        }
+        TenantRouter.Route route = tenantRouter.route(user.getTenant());
+        return route.template().save(user, route.collection());
+    }
+
+    // One unordered bulkWrite per flush instead of a round trip per user
+    @Override
+    public void updateLoginActivity(String tenant, List<LoginActivityUpdate> updates) {
+        TenantRouter.Route route = tenantRouter.route(tenant);
+        BulkOperations operations = route.template()
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, User.class, route.collection());
+        for (LoginActivityUpdate update : updates) {
+            operations.updateOne(
+                    Query.query(Criteria.where("_id").is(update.userId())),
+                    new Update()
+                            .max("lastLoginAt", update.lastLoginAt())
+                            .inc("loginCount", update.loginCount())
+            );
+        }
+        operations.execute();
+    }
+
+    // The server abandons the query once the request's deadline has passed
+    private static Query byEmail(String email, long remainingMs) {
+        Query query = Query.query(Criteria.where("email").is(email));
+        if (remainingMs != Long.MAX_VALUE) {
+            query.maxTime(Duration.ofMillis(Math.max(1, remainingMs)));
+        }
+        return query;
+    }
+
+}
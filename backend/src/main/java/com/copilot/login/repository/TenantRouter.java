@@ -0,0 +1,160 @@
+package com.copilot.login.repository;
+
+import com.copilot.login.config.TenancyProperties;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Maps a tenant to the MongoTemplate and collection holding its users. Tenants with
+ * their own {@code uri} get a dedicated MongoClient and therefore their own connection
+ * pool; the others share the application's client but live in separate collections.
+ */
+@Slf4j
+@Component
+public class TenantRouter implements DisposableBean {
+
+    public static final String DEFAULT_COLLECTION = "users";
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    public record Route(MongoTemplate template, String collection) {
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Autowired
+    private TenancyProperties properties;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+    private final List<MongoClient> tenantClients = new CopyOnWriteArrayList<>();
+
+    public boolean isDefault(String tenant) {
+        return tenant == null || tenant.isBlank() || tenant.equals(properties.getDefaultTenant());
+    }
+
+    // Users of the default tenant are stored without a tenant value. Unknown tenants are
+    // rejected here, before any user store sees them, so every store behaves the same
+    public String normalize(String tenant) {
+        if (isDefault(tenant)) {
+            return null;
+        }
+        if (!properties.getTenants().containsKey(tenant)) {
+            throw new RuntimeException("Unknown tenant");
+        }
+        return tenant;
+    }
+
+    private record NewRoute(Route route, MongoClient client) {
+    }
+
+    // Configuration errors surface at startup rather than on a tenant's first request
+    @PostConstruct
+    public void validate() {
+        properties.getTenants().forEach((tenant, settings) -> {
+            if (!TENANT_ID.matcher(tenant).matches()) {
+                throw new IllegalStateException("Invalid tenant id '" + tenant + "'");
+            }
+            if (hasText(settings.getUri()) && !hasText(settings.getDatabase())
+                    && new ConnectionString(settings.getUri()).getDatabase() == null) {
+                throw new IllegalStateException("Tenant " + tenant + " has a uri without a database; set "
+                        + "tenancy.tenants." + tenant + ".database or add the database to the uri");
+            }
+        });
+    }
+
+    public Route route(String tenant) {
+        if (isDefault(tenant)) {
+            return new Route(mongoTemplate, DEFAULT_COLLECTION);
+        }
+        Route route = routes.get(tenant);
+        if (route != null) {
+            return route;
+        }
+
+        // Built outside the map: creating a client and its index blocks on the network, and
+        // computeIfAbsent would hold up every other tenant hashing to the same bin meanwhile
+        NewRoute created = createRoute(tenant);
+        Route existing = routes.putIfAbsent(tenant, created.route());
+        if (existing != null) {
+            if (created.client() != null) {
+                created.client().close();
+            }
+            return existing;
+        }
+        if (created.client() != null) {
+            tenantClients.add(created.client());
+        }
+        return created.route();
+    }
+
+    private NewRoute createRoute(String tenant) {
+        TenancyProperties.Tenant settings = properties.getTenants().get(tenant);
+        if (settings == null || !TENANT_ID.matcher(tenant).matches()) {
+            throw new RuntimeException("Unknown tenant");
+        }
+
+        MongoTemplate template = mongoTemplate;
+        MongoClient client = null;
+        if (hasText(settings.getUri())) {
+            ConnectionString connectionString = new ConnectionString(settings.getUri());
+            client = MongoClients.create(MongoClientSettings.builder()
+                    .applyConnectionString(connectionString)
+                    .contextProvider(ContextProviderFactory.create(observationRegistry))
+                    .addCommandListener(new MongoObservationCommandListener(observationRegistry, connectionString))
+                    .build());
+            String database = hasText(settings.getDatabase()) ? settings.getDatabase() : connectionString.getDatabase();
+            template = new MongoTemplate(client, database);
+        } else if (hasText(settings.getDatabase())) {
+            template = new MongoTemplate(mongoClient, settings.getDatabase());
+        }
+
+        String collection = hasText(settings.getCollection()) ? settings.getCollection() : "users_" + tenant;
+        try {
+            template.indexOps(collection).ensureIndex(new Index().on("email", Sort.Direction.ASC).unique());
+        } catch (RuntimeException e) {
+            if (client != null) {
+                client.close();
+            }
+            throw e;
+        }
+        log.info("Routing tenant {} to collection {} in {}", tenant, collection, template.getDb().getName());
+
+        return new NewRoute(new Route(template, collection), client);
+    }
+
+    @Override
+    public void destroy() {
+        tenantClients.forEach(MongoClient::close);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+}
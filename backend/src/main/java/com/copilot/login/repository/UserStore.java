@@ -0,0 +1,25 @@
+package com.copilot.login.repository;
+
+import com.copilot.login.model.User;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage SPI used by AuthService. A {@code null} tenant means the default tenant.
+ * Selected with {@code user.store.type}: {@code mongo} (default) or {@code embedded}.
+ */
+public interface UserStore {
+
+    Optional<User> findByEmail(String tenant, String email);
+
+    boolean existsByEmail(String tenant, String email);
+
+    User save(User user);
+
+    void updateLoginActivity(String tenant, List<LoginActivityUpdate> updates);
+
+    record LoginActivityUpdate(String userId, long lastLoginAt, long loginCount) {
+    }
+
+}
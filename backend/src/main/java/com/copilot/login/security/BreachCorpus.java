@@ -0,0 +1,123 @@
+package com.copilot.login.security;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Read-only view of a breached-password corpus: a file of sorted 20-byte SHA-1 digests
+ * (see {@link BreachCorpusBuilder}). The file is memory-mapped in chunks, so the data stays
+ * in the page cache rather than on the heap; a table of where each 2-byte prefix starts
+ * narrows every lookup to a binary search over a small range.
+ */
+public class BreachCorpus {
+
+    static final int RECORD_SIZE = 20;
+
+    // Largest multiple of the record size that fits a MappedByteBuffer comfortably
+    private static final long RECORDS_PER_CHUNK = (1L << 30) / RECORD_SIZE;
+
+    private final MappedByteBuffer[] chunks;
+    private final long recordCount;
+    private final long[] prefixStart = new long[65537];
+
+    public BreachCorpus(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % RECORD_SIZE != 0) {
+                throw new IOException("Corrupt breach corpus " + path + ": size is not a multiple of " + RECORD_SIZE);
+            }
+            recordCount = size / RECORD_SIZE;
+            int chunkCount = (int) ((recordCount + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK);
+            chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long start = i * RECORDS_PER_CHUNK * RECORD_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start,
+                        RECORDS_PER_CHUNK * RECORD_SIZE));
+            }
+        }
+
+        for (int prefix = 0; prefix < 65536; prefix++) {
+            prefixStart[prefix] = firstWithPrefixAtLeast(prefix);
+        }
+        prefixStart[65536] = recordCount;
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    public boolean contains(String password) {
+        return containsDigest(sha1(password));
+    }
+
+    boolean containsDigest(byte[] digest) {
+        ByteBuffer target = ByteBuffer.wrap(digest);
+        long high = target.getLong(0);
+        long middle = target.getLong(8);
+        int low = target.getInt(16);
+
+        int prefix = (int) (high >>> 48);
+        long from = prefixStart[prefix];
+        long to = prefixStart[prefix + 1] - 1;
+        while (from <= to) {
+            long mid = (from + to) >>> 1;
+            int cmp = compare(mid, high, middle, low);
+            if (cmp == 0) {
+                return true;
+            }
+            if (cmp < 0) {
+                from = mid + 1;
+            } else {
+                to = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    private long firstWithPrefixAtLeast(int prefix) {
+        long from = 0;
+        long to = recordCount;
+        while (from < to) {
+            long mid = (from + to) >>> 1;
+            ByteBuffer chunk = chunks[(int) (mid / RECORDS_PER_CHUNK)];
+            int recordPrefix = chunk.getShort((int) (mid % RECORDS_PER_CHUNK) * RECORD_SIZE) & 0xffff;
+            if (recordPrefix < prefix) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    // Compares record at index with the target digest as unsigned big-endian numbers
+    private int compare(long index, long high, long middle, int low) {
+        ByteBuffer chunk = chunks[(int) (index / RECORDS_PER_CHUNK)];
+        int offset = (int) (index % RECORDS_PER_CHUNK) * RECORD_SIZE;
+        int cmp = Long.compareUnsigned(chunk.getLong(offset), high);
+        if (cmp != 0) {
+            return cmp;
+        }
+        cmp = Long.compareUnsigned(chunk.getLong(offset + 8), middle);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Integer.compareUnsigned(chunk.getInt(offset + 16), low);
+    }
+
+    static byte[] sha1(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.copilot.login.security;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Converts the Have I Been Pwned "SHA-1 ordered by hash" download (lines of
+ * {@code HASH:COUNT}) into the binary corpus read by {@link BreachCorpus}. Input must be
+ * sorted by hash, as the download is; hashes seen fewer than {@code minCount} times are
+ * skipped to keep the file smaller.
+ *
+ * <pre>
+ * java -cp login-service.jar -Dloader.main=com.copilot.login.security.BreachCorpusBuilder \
+ *     org.springframework.boot.loader.PropertiesLauncher pwned-passwords-sha1-ordered-by-hash-v8.txt breach.bin [minCount]
+ * </pre>
+ */
+public final class BreachCorpusBuilder {
+
+    private BreachCorpusBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BreachCorpusBuilder <hibp-sha1-ordered-by-hash.txt> <output.bin> [minCount]");
+            System.exit(1);
+        }
+        long minCount = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        long written = build(Paths.get(args[0]), Paths.get(args[1]), minCount);
+        System.out.println("Wrote " + written + " hashes to " + args[1]);
+    }
+
+    public static long build(Path input, Path output, long minCount) throws IOException {
+        HexFormat hex = HexFormat.of();
+        byte[] previous = null;
+        long written = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.US_ASCII);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 20)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                String hash = colon < 0 ? line : line.substring(0, colon);
+                if (colon >= 0 && Long.parseLong(line.substring(colon + 1).trim()) < minCount) {
+                    continue;
+                }
+                if (hash.length() != BreachCorpus.RECORD_SIZE * 2) {
+                    throw new IOException("Line " + lineNumber + " is not a SHA-1 hash");
+                }
+                byte[] digest = hex.parseHex(hash);
+                if (previous != null) {
+                    int cmp = Arrays.compareUnsigned(previous, digest);
+                    if (cmp > 0) {
+                        throw new IOException("Input is not sorted by hash at line " + lineNumber);
+                    }
+                    if (cmp == 0) {
+                        continue;
+                    }
+                }
+                out.write(digest);
+                previous = digest;
+                written++;
+            }
+        }
+        return written;
+    }
+
+}
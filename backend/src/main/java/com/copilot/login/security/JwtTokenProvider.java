@@ -1,54 +1,216 @@
 package com.copilot.login.security;
 
+import com.copilot.login.cache.DeactivatedSubjects;
+import com.copilot.login.dto.TokenIntrospection;
+import com.copilot.login.model.User;
+import com.copilot.login.session.SessionRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 public class JwtTokenProvider {
 
+    // Always written for tenant users, outside the configurable profile claims and their byte
+    // budget: without it a tenant token would be taken for the default-tenant user with that email
+    public static final String TENANT_CLAIM = "tenant";
+
+    // Name used when tenant was a compact profile claim; still read so those tokens keep their tenant
+    private static final String LEGACY_TENANT_CLAIM = "t";
+
+    private static final Set<String> REGISTERED_CLAIMS = Set.of(
+            Claims.SUBJECT, Claims.ISSUED_AT, Claims.EXPIRATION, Claims.ID,
+            Claims.ISSUER, Claims.AUDIENCE, Claims.NOT_BEFORE
+    );
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.claims.include:}")
+    private String[] profileClaimNames;
+
+    @Value("${jwt.claims.compact:false}")
+    private boolean compactClaimNames;
+
+    @Value("${jwt.claims.max-bytes:512}")
+    private int profileClaimsMaxBytes;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private DeactivatedSubjects deactivatedSubjects;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    private SecretKey key;
+
+    private JwtParser parser;
+
+    private List<ProfileClaim> profileClaims;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+
+        profileClaims = new ArrayList<>();
+        for (String name : profileClaimNames) {
+            if (!name.isBlank()) {
+                profileClaims.add(ProfileClaim.fromClaimName(name.trim()));
+            }
+        }
+    }
+
     public String generateToken(String email) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return newTokenBuilder(email).compact();
+    }
+
+    public String generateToken(User user) {
+        return generateToken(user, null);
+    }
+
+    /**
+     * Token for a login session; {@code sessionId} becomes the {@code jti} claim.
+     */
+    public String generateToken(User user, String sessionId) {
+        JwtBuilder builder = newTokenBuilder(user.getEmail());
+        if (sessionId != null) {
+            builder.id(sessionId);
+        }
+        if (user.getTenant() != null) {
+            builder.claim(TENANT_CLAIM, user.getTenant());
+        }
+        profileClaimsFor(user).forEach(builder::claim);
+        return builder.compact();
+    }
+
+    Map<String, Object> profileClaimsFor(User user) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        int remaining = profileClaimsMaxBytes;
+
+        // Claims are added in configured order; any that would overflow the budget are left out
+        for (ProfileClaim claim : profileClaims) {
+            Object value = claim.valueOf(user);
+            if (value == null) {
+                continue;
+            }
+            String name = compactClaimNames ? claim.getCompactName() : claim.getClaimName();
+            int size = encodedSize(name, value);
+            if (size > remaining) {
+                continue;
+            }
+            claims.put(name, value);
+            remaining -= size;
+        }
+        return claims;
+    }
+
+    private JwtBuilder newTokenBuilder(String subject) {
         return Jwts.builder()
-                .subject(email)
+                .subject(subject)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(key, SignatureAlgorithm.HS512)
-                .compact();
+                .signWith(key, SignatureAlgorithm.HS512);
+    }
+
+    private static int encodedSize(String name, Object value) {
+        // "name":value, plus quotes around string values
+        int valueSize = value instanceof String
+                ? ((String) value).getBytes(StandardCharsets.UTF_8).length + 2
+                : String.valueOf(value).length();
+        return name.length() + 4 + valueSize;
     }
 
     public String getEmailFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
     }
 
     public boolean validateToken(String token) {
+        return introspect(token).isActive();
+    }
+
+    public TokenIntrospection introspect(String token) {
+        if (token == null || token.isEmpty()) {
+            return TokenIntrospection.inactive();
+        }
+
+        TokenIntrospection cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return isDeactivated(cached) || isRevoked(cached) ? TokenIntrospection.inactive() : cached;
+        }
+
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            TokenIntrospection introspection = new TokenIntrospection(
+                    true,
+                    claims.getSubject(),
+                    claims.getExpiration().getTime(),
+                    extraClaims(claims),
+                    claims.getId(),
+                    claims.getIssuedAt() == null ? null : claims.getIssuedAt().getTime()
+            );
+            verifiedTokenCache.put(token, introspection);
+            return isDeactivated(introspection) || isRevoked(introspection) ? TokenIntrospection.inactive() : introspection;
         } catch (Exception e) {
-            return false;
+            return TokenIntrospection.inactive();
+        }
+    }
+
+    // Tenant tokens carry a tenant claim; default-tenant tokens have none
+    private boolean isDeactivated(TokenIntrospection introspection) {
+        return deactivatedSubjects.contains(tenantOf(introspection), introspection.getSubject());
+    }
+
+    private boolean isRevoked(TokenIntrospection introspection) {
+        return sessionRegistry.isRevoked(sessionSubject(introspection), introspection.getSessionId(),
+                introspection.getIssuedAt());
+    }
+
+    /**
+     * Key of the token's owner in the session registry.
+     */
+    public String sessionSubject(TokenIntrospection introspection) {
+        return SessionRegistry.subjectKey(tenantOf(introspection), introspection.getSubject());
+    }
+
+    private static String tenantOf(TokenIntrospection introspection) {
+        Map<String, Object> claims = introspection.getClaims();
+        if (claims == null) {
+            return null;
         }
+        Object tenant = claims.getOrDefault(TENANT_CLAIM, claims.get(LEGACY_TENANT_CLAIM));
+        return tenant == null ? null : tenant.toString();
+    }
+
+    private static Map<String, Object> extraClaims(Claims claims) {
+        Map<String, Object> extra = new LinkedHashMap<>(claims);
+        extra.keySet().removeAll(REGISTERED_CLAIMS);
+        return extra.isEmpty() ? null : extra;
     }
 
     public long getExpirationTime() {
@@ -0,0 +1,42 @@
+package com.copilot.login.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Rules a new password must pass before it is hashed. Passwords found in the local breach
+ * corpus ({@code breach-check.corpus-path}) are rejected; the check never leaves the host.
+ */
+@Slf4j
+@Component
+public class PasswordPolicy {
+
+    @Value("${breach-check.corpus-path:}")
+    private String corpusPath;
+
+    private BreachCorpus breachCorpus;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (corpusPath == null || corpusPath.isBlank()) {
+            return;
+        }
+        breachCorpus = new BreachCorpus(Paths.get(corpusPath));
+        log.info("Loaded breach corpus with {} hashes from {}", breachCorpus.size(), corpusPath);
+    }
+
+    public void check(String password) {
+        if (password == null || password.isEmpty()) {
+            return;
+        }
+        if (breachCorpus != null && breachCorpus.contains(password)) {
+            throw new RuntimeException("Password has appeared in a data breach");
+        }
+    }
+
+}
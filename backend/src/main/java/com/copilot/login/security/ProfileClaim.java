@@ -0,0 +1,45 @@
+package com.copilot.login.security;
+
+import com.copilot.login.model.User;
+
+import java.util.function.Function;
+
+public enum ProfileClaim {
+
+    USER_ID("uid", "u", User::getId),
+    FIRST_NAME("given_name", "gn", User::getFirstName),
+    LAST_NAME("family_name", "fn", User::getLastName),
+    ACTIVE("active", "a", User::getActive);
+
+    private final String claimName;
+    private final String compactName;
+    private final Function<User, Object> extractor;
+
+    ProfileClaim(String claimName, String compactName, Function<User, Object> extractor) {
+        this.claimName = claimName;
+        this.compactName = compactName;
+        this.extractor = extractor;
+    }
+
+    public String getClaimName() {
+        return claimName;
+    }
+
+    public String getCompactName() {
+        return compactName;
+    }
+
+    public Object valueOf(User user) {
+        return extractor.apply(user);
+    }
+
+    public static ProfileClaim fromClaimName(String name) {
+        for (ProfileClaim claim : values()) {
+            if (claim.claimName.equals(name)) {
+                return claim;
+            }
+        }
+        throw new IllegalArgumentException("Unknown profile claim: " + name);
+    }
+
+}
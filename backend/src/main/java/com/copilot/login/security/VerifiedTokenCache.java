@@ -0,0 +1,65 @@
+package com.copilot.login.security;
+
+import com.copilot.login.dto.TokenIntrospection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers tokens whose signature has already been verified, until they expire.
+ * Only valid tokens are stored so garbage input cannot be used to flush the cache.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    private final ConcurrentHashMap<String, TokenIntrospection> entries = new ConcurrentHashMap<>();
+
+    public TokenIntrospection get(String token) {
+        TokenIntrospection entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.getExpiresAt() <= System.currentTimeMillis()) {
+            entries.remove(token, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    public void put(String token, TokenIntrospection introspection) {
+        if (maxSize <= 0 || !introspection.isActive()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(token, introspection);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.getExpiresAt() <= now);
+
+        // Still full: drop an arbitrary tenth rather than refusing new entries
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+}
@@ -1,21 +1,58 @@
 package com.copilot.login.service;
 
+import com.copilot.login.audit.AuditLog;
+import com.copilot.login.audit.AuthEventType;
+import com.copilot.login.cache.CredentialIndex;
+import com.copilot.login.cache.IdempotencyCache;
+import com.copilot.login.deadline.RequestDeadline;
+import com.copilot.login.dto.IntrospectionRequest;
+import com.copilot.login.dto.IntrospectionResponse;
 import com.copilot.login.dto.LoginRequest;
 import com.copilot.login.dto.LoginResponse;
+import com.copilot.login.dto.SessionSummary;
 import com.copilot.login.dto.SignupRequest;
 import com.copilot.login.dto.SignupResponse;
+import com.copilot.login.dto.TokenIntrospection;
+import com.copilot.login.model.Session;
 import com.copilot.login.model.User;
-import com.copilot.login.repository.UserRepository;
+import com.copilot.login.profiling.AuthStageEvent;
+import com.copilot.login.repository.TenantRouter;
+import com.copilot.login.repository.UserStore;
 import com.copilot.login.security.JwtTokenProvider;
+import com.copilot.login.security.PasswordPolicy;
+import com.copilot.login.session.SessionRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 @Service
 public class AuthService {
 
     @Autowired
-    private UserRepository userRepository;
+    private UserStore userStore;
+
+    @Autowired
+    private TenantRouter tenantRouter;
 
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
@@ -23,15 +60,136 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private LoginActivityTracker loginActivityTracker;
+
+    @Autowired
+    private CredentialIndex credentialIndex;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private PasswordPolicy passwordPolicy;
+
+    @Value("${jwt.introspection.max-batch-size:100}")
+    private int introspectionMaxBatchSize;
+
+    @Value("${jwt.introspection.parallelism:1}")
+    private int introspectionParallelism;
+
+    @Value("${idempotency.max-size:10000}")
+    private int idempotencyMaxSize;
+
+    @Value("${idempotency.ttl-ms:3600000}")
+    private long idempotencyTtlMs;
+
+    @Value("${idempotency.max-key-length:255}")
+    private int idempotencyMaxKeyLength;
+
+    private IdempotencyCache<SignupResponse> signupsByKey;
+
+    // Only with jwt.introspection.parallelism > 1; bounds what one unauthenticated batch can occupy
+    private ExecutorService introspectionExecutor;
+
+    // Keeps request fingerprints from being usable as unsalted password hashes
+    private final byte[] fingerprintSalt = new byte[16];
+
+    @PostConstruct
+    public void init() {
+        signupsByKey = new IdempotencyCache<>(idempotencyMaxSize, idempotencyTtlMs);
+        new SecureRandom().nextBytes(fingerprintSalt);
+        if (introspectionParallelism > 1) {
+            AtomicInteger threads = new AtomicInteger();
+            introspectionExecutor = Executors.newFixedThreadPool(introspectionParallelism, runnable -> {
+                Thread thread = new Thread(runnable, "introspection-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (introspectionExecutor != null) {
+            introspectionExecutor.shutdownNow();
+        }
+    }
+
     public LoginResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
+        return login(request, null);
+    }
+
+    /**
+     * Logs in and opens a session; {@code device} (usually the User-Agent) is shown when
+     * the user lists their sessions.
+     */
+    public LoginResponse login(LoginRequest request, String device) {
+        try {
+            LoginResponse response = Observation.createNotStarted("auth.login", observationRegistry)
+                    .observe(() -> authenticate(request, device));
+            auditLog.record(AuthEventType.LOGIN_SUCCESS, request.getEmail(), null);
+            return response;
+        } catch (RuntimeException e) {
+            auditLog.record(AuthEventType.LOGIN_FAILURE, request.getEmail(), e.getMessage());
+            throw e;
+        }
+    }
+
+    public SignupResponse signup(SignupRequest request) {
+        try {
+            SignupResponse response = Observation.createNotStarted("auth.signup", observationRegistry)
+                    .observe(() -> register(request));
+            auditLog.record(AuthEventType.SIGNUP_SUCCESS, request.getEmail(), null);
+            return response;
+        } catch (RuntimeException e) {
+            auditLog.record(AuthEventType.SIGNUP_FAILURE, request.getEmail(), e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Signup that can be retried safely: a repeated request with the same key returns the
+     * original response without hashing the password or querying the store again.
+     */
+    public SignupResponse signup(SignupRequest request, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return signup(request);
+        }
+        if (idempotencyKey.length() > idempotencyMaxKeyLength) {
+            throw new RuntimeException("Idempotency key too long");
+        }
+        return signupsByKey.execute(idempotencyKey, fingerprint(request), () -> signup(request));
+    }
+
+    private LoginResponse authenticate(LoginRequest request, String device) {
+        RequestDeadline.check("user lookup");
+        String tenant = tenantRouter.normalize(request.getTenant());
+        User user = stage("login", "lookup", () -> findUser(tenant, request.getEmail()))
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        // The token's tenant claim comes from the user; one stored without it would get a default-tenant token
+        if (!Objects.equals(tenant, user.getTenant())) {
+            throw new RuntimeException("User not found");
+        }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        RequestDeadline.check("password check");
+        if (!stage("login", "hash", () -> passwordEncoder.matches(request.getPassword(), user.getPassword()))) {
             throw new RuntimeException("Invalid password");
         }
 
-        String token = jwtTokenProvider.generateToken(user.getEmail());
+        if (Boolean.FALSE.equals(user.getActive())) {
+            throw new RuntimeException("Account is deactivated");
+        }
+
+        String sessionId = sessionRegistry.isEnabled() ? sessionRegistry.open(user, device).getId() : null;
+        String token = stage("login", "sign", () -> jwtTokenProvider.generateToken(user, sessionId));
+        loginActivityTracker.recordLogin(user.getTenant(), user.getId());
 
         return new LoginResponse(
                 token,
@@ -42,18 +200,50 @@ public class AuthService {
         );
     }
 
-    public SignupResponse signup(SignupRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
+    // One span (and timer) per stage, plus the matching JFR event
+    private <T> T stage(String operation, String stage, Supplier<T> work) {
+        return Observation.createNotStarted("auth.stage", observationRegistry)
+                .contextualName(operation + " " + stage)
+                .lowCardinalityKeyValue("operation", operation)
+                .lowCardinalityKeyValue("stage", stage)
+                .observe(() -> AuthStageEvent.record(operation, stage, work));
+    }
+
+    private Optional<User> findUser(String tenant, String email) {
+        if (tenant == null && credentialIndex.isServing()) {
+            Optional<User> indexed = credentialIndex.find(email);
+            if (indexed.isPresent()) {
+                return indexed;
+            }
+            Optional<User> stored = userStore.findByEmail(null, email);
+            stored.ifPresent(credentialIndex::refresh);
+            return stored;
+        }
+        return userStore.findByEmail(tenant, email);
+    }
+
+    private SignupResponse register(SignupRequest request) {
+        String tenant = tenantRouter.normalize(request.getTenant());
+        RequestDeadline.check("user lookup");
+        if (stage("signup", "lookup", () -> userStore.existsByEmail(tenant, request.getEmail()))) {
             throw new RuntimeException("Email already exists");
         }
+        stage("signup", "policy", () -> {
+            passwordPolicy.check(request.getPassword());
+            return null;
+        });
 
         User user = new User();
+        user.setTenant(tenant);
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        RequestDeadline.check("password hashing");
+        user.setPassword(stage("signup", "hash", () -> passwordEncoder.encode(request.getPassword())));
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
 
-        User savedUser = userRepository.save(user);
+        RequestDeadline.check("user save");
+        User savedUser = stage("signup", "save", () -> userStore.save(user));
+        credentialIndex.put(savedUser);
 
         return new SignupResponse(
                 savedUser.getId(),
@@ -64,8 +254,91 @@ public class AuthService {
         );
     }
 
+    private String fingerprint(SignupRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(fingerprintSalt);
+            for (String field : new String[] {request.getEmail(), request.getPassword(),
+                    request.getFirstName(), request.getLastName(), tenantRouter.normalize(request.getTenant())}) {
+                digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public IntrospectionResponse introspect(IntrospectionRequest request) {
+        List<String> tokens = request.getTokens();
+        if (tokens == null || tokens.isEmpty()) {
+            throw new RuntimeException("No tokens to introspect");
+        }
+        if (tokens.size() > introspectionMaxBatchSize) {
+            throw new RuntimeException("Too many tokens in batch");
+        }
+
+        // Checked one after another on the request thread unless a dedicated pool is configured
+        List<TokenIntrospection> results;
+        if (introspectionExecutor == null || tokens.size() == 1) {
+            results = tokens.stream().map(jwtTokenProvider::introspect).collect(Collectors.toList());
+        } else {
+            List<CompletableFuture<TokenIntrospection>> pending = tokens.stream()
+                    .map(token -> CompletableFuture.supplyAsync(() -> jwtTokenProvider.introspect(token), introspectionExecutor))
+                    .collect(Collectors.toList());
+            results = pending.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        }
+
+        return new IntrospectionResponse(results);
+    }
+
+    public List<SessionSummary> listSessions(String token) {
+        TokenIntrospection caller = requireActive(token);
+        return sessionRegistry.list(sessionOwner(caller)).stream()
+                .map(session -> toSummary(session, caller.getSessionId()))
+                .collect(Collectors.toList());
+    }
+
+    public boolean revokeSession(String token, String sessionId) {
+        TokenIntrospection caller = requireActive(token);
+        return sessionRegistry.revoke(sessionOwner(caller), sessionId);
+    }
+
+    public void revokeAllSessions(String token) {
+        TokenIntrospection caller = requireActive(token);
+        sessionRegistry.revokeAll(sessionOwner(caller));
+    }
+
+    // The subject from the token must be the one the caller's own session was stored under,
+    // so a token that lost its tenant cannot act for the default-tenant user with that email
+    private String sessionOwner(TokenIntrospection caller) {
+        String subject = jwtTokenProvider.sessionSubject(caller);
+        if (!sessionRegistry.owns(subject, caller.getSessionId())) {
+            throw new RuntimeException("Invalid token");
+        }
+        return subject;
+    }
+
+    private TokenIntrospection requireActive(String token) {
+        TokenIntrospection introspection = jwtTokenProvider.introspect(token);
+        if (!introspection.isActive()) {
+            throw new RuntimeException("Invalid token");
+        }
+        return introspection;
+    }
+
+    private static SessionSummary toSummary(Session session, String currentSessionId) {
+        return new SessionSummary(
+                session.getId(),
+                session.getDevice(),
+                session.getCreatedAt(),
+                session.getExpiresAt().getTime(),
+                session.getId().equals(currentSessionId)
+        );
+    }
+
     public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
+        return userStore.findByEmail(null, email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
@@ -0,0 +1,160 @@
+package com.copilot.login.service;
+
+import com.copilot.login.repository.UserStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps last-login time and login count per user in memory and hands them to the
+ * UserStore in periodic batches. Repeated logins of the same user between two flushes
+ * collapse into a single update.
+ */
+@Slf4j
+@Component
+public class LoginActivityTracker implements SmartLifecycle {
+
+    @Value("${login-activity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${login-activity.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    @Value("${login-activity.max-pending:10000}")
+    private int maxPending;
+
+    @Autowired
+    private UserStore userStore;
+
+    private final ConcurrentHashMap<UserKey, PendingLogins> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public void recordLogin(String tenant, String userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        pending.compute(new UserKey(tenant, userId), (key, logins) -> {
+            if (logins == null) {
+                logins = new PendingLogins();
+            }
+            logins.lastLoginAt = Math.max(logins.lastLoginAt, now);
+            logins.count++;
+            return logins;
+        });
+
+        ScheduledExecutorService current = scheduler;
+        if (pending.size() >= maxPending && current != null && earlyFlushScheduled.compareAndSet(false, true)) {
+            current.execute(() -> {
+                earlyFlushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Map.Entry<UserKey, PendingLogins>>> batchesByTenant = new HashMap<>();
+        for (UserKey key : pending.keySet()) {
+            PendingLogins logins = pending.remove(key);
+            if (logins != null) {
+                batchesByTenant.computeIfAbsent(key.tenant(), tenant -> new ArrayList<>()).add(Map.entry(key, logins));
+            }
+        }
+        batchesByTenant.forEach(this::flushTenant);
+    }
+
+    private void flushTenant(String tenant, List<Map.Entry<UserKey, PendingLogins>> batch) {
+        List<UserStore.LoginActivityUpdate> updates = new ArrayList<>(batch.size());
+        for (Map.Entry<UserKey, PendingLogins> entry : batch) {
+            updates.add(new UserStore.LoginActivityUpdate(
+                    entry.getKey().userId(), entry.getValue().lastLoginAt, entry.getValue().count));
+        }
+
+        try {
+            userStore.updateLoginActivity(tenant, updates);
+        } catch (Exception e) {
+            log.warn("Failed to flush login activity for {} users, will retry: {}", batch.size(), e.getMessage());
+            for (Map.Entry<UserKey, PendingLogins> entry : batch) {
+                pending.merge(entry.getKey(), entry.getValue(), PendingLogins::combine);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-activity-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        scheduler = null;
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    // Stops after the web server (graceful shutdown and stop run at DEFAULT_PHASE - 1024 and
+    // - 2048), so the final flush includes logins from requests finished during shutdown
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private record UserKey(String tenant, String userId) {
+    }
+
+    private static final class PendingLogins {
+        private long lastLoginAt;
+        private long count;
+
+        private static PendingLogins combine(PendingLogins a, PendingLogins b) {
+            a.lastLoginAt = Math.max(a.lastLoginAt, b.lastLoginAt);
+            a.count += b.count;
+            return a;
+        }
+    }
+
+}
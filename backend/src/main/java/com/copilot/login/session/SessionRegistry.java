@@ -0,0 +1,355 @@
+package com.copilot.login.session;
+
+import com.copilot.login.model.Session;
+import com.copilot.login.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of login sessions. Requests never write to MongoDB: new sessions and
+ * revocations are queued and written in batches every {@code sessions.flush-interval-ms},
+ * and each flush also pulls revocations made on other instances. Token validation checks
+ * two in-memory maps (revoked session ids and per-user "revoked before" times), so a
+ * revocation costs O(1) per check. Expired sessions are removed by a TTL index.
+ *
+ * <p>With the embedded user store nothing is persisted and sessions live in memory only.
+ * Each flush drops the expired ones, and a subject keeps at most
+ * {@code sessions.max-per-subject}: opening another revokes the oldest.
+ */
+@Slf4j
+@Component
+public class SessionRegistry implements SmartLifecycle {
+
+    private static final long POLL_OVERLAP_MS = 5000;
+
+    @Value("${sessions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sessions.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${sessions.collection:sessions}")
+    private String collection;
+
+    @Value("${sessions.revocations-collection:session_revocations}")
+    private String revocationsCollection;
+
+    @Value("${sessions.max-per-subject:100}")
+    private int maxPerSubject;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${user.store.type:mongo}")
+    private String storeType;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final ConcurrentLinkedQueue<Session> pendingSessions = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> pendingRevocations = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, Long> pendingUserRevocations = new ConcurrentHashMap<>();
+
+    // Sessions not yet written (all sessions when nothing is persisted), by subject
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Session>> localSessions = new ConcurrentHashMap<>();
+
+    // Session id -> expiry, and subject -> tokens issued before this time are revoked
+    private final ConcurrentHashMap<String, Long> revokedSessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile long polledUpTo;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public static String subjectKey(String tenant, String email) {
+        return tenant == null ? email : tenant + "/" + email;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Session open(User user, String device) {
+        byte[] id = new byte[16];
+        random.nextBytes(id);
+        long now = System.currentTimeMillis();
+        Session session = new Session(
+                Base64.getUrlEncoder().withoutPadding().encodeToString(id),
+                subjectKey(user.getTenant(), user.getEmail()),
+                user.getId(),
+                device == null ? null : device.substring(0, Math.min(device.length(), 200)),
+                now,
+                new Date(now + jwtExpiration),
+                null
+        );
+        ConcurrentHashMap<String, Session> sessions =
+                localSessions.computeIfAbsent(session.getSubject(), subject -> new ConcurrentHashMap<>());
+        sessions.put(session.getId(), session);
+        if (isPersistent()) {
+            pendingSessions.add(session);
+        } else if (sessions.size() > maxPerSubject) {
+            sessions.values().stream()
+                    .min((a, b) -> Long.compare(a.getCreatedAt(), b.getCreatedAt()))
+                    .ifPresent(oldest -> revoke(oldest.getSubject(), oldest.getId()));
+        }
+        return session;
+    }
+
+    public boolean isRevoked(String subject, String sessionId, Long issuedAt) {
+        if (sessionId != null && revokedSessions.containsKey(sessionId)) {
+            return true;
+        }
+        Long cutoff = revokedBefore.isEmpty() ? null : revokedBefore.get(subject);
+        return cutoff != null && issuedAt != null && issuedAt < cutoff;
+    }
+
+    public List<Session> list(String subject) {
+        Map<String, Session> sessions = new HashMap<>();
+        if (isPersistent()) {
+            Query query = Query.query(Criteria.where("s").is(subject)
+                    .and("r").is(null)
+                    .and("e").gt(new Date()));
+            for (Session session : mongoTemplate.find(query, Session.class, collection)) {
+                sessions.put(session.getId(), session);
+            }
+        }
+        Map<String, Session> local = localSessions.get(subject);
+        if (local != null) {
+            sessions.putAll(local);
+        }
+
+        long now = System.currentTimeMillis();
+        List<Session> active = new ArrayList<>();
+        for (Session session : sessions.values()) {
+            if (session.getExpiresAt().getTime() > now
+                    && !isRevoked(subject, session.getId(), session.getCreatedAt())) {
+                active.add(session);
+            }
+        }
+        active.sort((a, b) -> Long.compare(b.getCreatedAt(), a.getCreatedAt()));
+        return active;
+    }
+
+    /**
+     * Revokes one of the subject's sessions. Returns false if the subject has no such session.
+     */
+    public boolean revoke(String subject, String sessionId) {
+        Session session = find(subject, sessionId);
+        if (session == null) {
+            return false;
+        }
+        revokedSessions.put(sessionId, session.getExpiresAt().getTime());
+        removeLocal(subject, sessionId);
+        if (isPersistent()) {
+            pendingRevocations.add(sessionId);
+        }
+        return true;
+    }
+
+    public void revokeAll(String subject) {
+        // iat has second precision, so the cutoff is rounded down and the sessions known so far
+        // are also revoked by id. Other instances pick up the cutoff on their next flush.
+        long cutoff = System.currentTimeMillis() / 1000 * 1000;
+        for (Session session : list(subject)) {
+            revokedSessions.put(session.getId(), session.getExpiresAt().getTime());
+        }
+        revokedBefore.merge(subject, cutoff, Math::max);
+        localSessions.remove(subject);
+        if (isPersistent()) {
+            pendingUserRevocations.merge(subject, cutoff, Math::max);
+        }
+    }
+
+    /**
+     * Whether the session was opened for the subject, according to the stored session.
+     */
+    public boolean owns(String subject, String sessionId) {
+        return sessionId != null && find(subject, sessionId) != null;
+    }
+
+    private Session find(String subject, String sessionId) {
+        Map<String, Session> local = localSessions.get(subject);
+        Session session = local == null ? null : local.get(sessionId);
+        if (session == null && isPersistent()) {
+            session = mongoTemplate.findOne(Query.query(Criteria.where("_id").is(sessionId).and("s").is(subject)),
+                    Session.class, collection);
+        }
+        return session;
+    }
+
+    private void removeLocal(String subject, String sessionId) {
+        localSessions.computeIfPresent(subject, (key, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    public synchronized void flush() {
+        if (isPersistent()) {
+            try {
+                writePending();
+                pollRevocations();
+            } catch (Exception e) {
+                log.warn("Failed to sync sessions, will retry: {}", e.getMessage());
+            }
+        }
+        removeExpired();
+    }
+
+    private void writePending() {
+        List<Session> sessions = new ArrayList<>();
+        for (Session session; (session = pendingSessions.poll()) != null; ) {
+            if (revokedSessions.containsKey(session.getId())) {
+                session.setRevokedAt(System.currentTimeMillis());
+            }
+            sessions.add(session);
+        }
+        if (!sessions.isEmpty()) {
+            try {
+                mongoTemplate.insert(sessions, collection);
+            } catch (RuntimeException e) {
+                pendingSessions.addAll(sessions);
+                throw e;
+            }
+            sessions.forEach(session -> removeLocal(session.getSubject(), session.getId()));
+        }
+
+        List<String> revoked = new ArrayList<>();
+        for (String id; (id = pendingRevocations.poll()) != null; ) {
+            revoked.add(id);
+        }
+        if (!revoked.isEmpty()) {
+            try {
+                mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(revoked)),
+                        Update.update("r", System.currentTimeMillis()), collection);
+            } catch (RuntimeException e) {
+                pendingRevocations.addAll(revoked);
+                throw e;
+            }
+        }
+
+        for (Map.Entry<String, Long> entry : pendingUserRevocations.entrySet()) {
+            String subject = entry.getKey();
+            long cutoff = entry.getValue();
+            long now = System.currentTimeMillis();
+            mongoTemplate.updateMulti(Query.query(Criteria.where("s").is(subject).and("r").is(null)),
+                    Update.update("r", now), collection);
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(subject)),
+                    new Update().max("b", cutoff).set("w", now).set("e", new Date(cutoff + jwtExpiration)),
+                    revocationsCollection);
+            pendingUserRevocations.remove(subject, cutoff);
+        }
+    }
+
+    private void pollRevocations() {
+        long pollStart = System.currentTimeMillis();
+        long since = polledUpTo == 0 ? 0 : polledUpTo - POLL_OVERLAP_MS;
+
+        Query revokedQuery = Query.query(Criteria.where("r").gte(since));
+        revokedQuery.fields().include("e");
+        for (Document session : mongoTemplate.find(revokedQuery, Document.class, collection)) {
+            Date expiresAt = session.getDate("e");
+            revokedSessions.put(session.getString("_id"), expiresAt == null ? pollStart + jwtExpiration : expiresAt.getTime());
+        }
+        for (Document revocation : mongoTemplate.find(Query.query(Criteria.where("w").gte(since)),
+                Document.class, revocationsCollection)) {
+            revokedBefore.merge(revocation.getString("_id"), revocation.getLong("b"), Math::max);
+        }
+        polledUpTo = pollStart;
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        revokedSessions.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedBefore.values().removeIf(cutoff -> cutoff + jwtExpiration <= now);
+        localSessions.values().forEach(sessions ->
+                sessions.values().removeIf(session -> session.getExpiresAt().getTime() <= now));
+        localSessions.values().removeIf(Map::isEmpty);
+    }
+
+    private boolean isPersistent() {
+        return "mongo".equals(storeType);
+    }
+
+    private void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("e", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS));
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("s", Sort.Direction.ASC));
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("r", Sort.Direction.ASC).sparse());
+            mongoTemplate.indexOps(revocationsCollection).ensureIndex(new Index().on("e", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS));
+            mongoTemplate.indexOps(revocationsCollection).ensureIndex(new Index().on("w", Sort.Direction.ASC));
+        } catch (Exception e) {
+            log.warn("Failed to create session indexes: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (isPersistent()) {
+            // Off the startup path; runs on the sync thread ahead of the first flush
+            scheduler.execute(this::ensureIndexes);
+        }
+        scheduler.scheduleWithFixedDelay(this::flush, 0, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        scheduler = null;
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    // The web server drains requests at DEFAULT_PHASE - 1024 and stops at - 2048; stopping
+    // below both means sessions opened by those last requests reach the final flush
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.copilot.login.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds login and signup requests with 503 once the adaptive concurrency limit is reached,
+ * before they queue for MongoDB or BCrypt.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Value("${concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${concurrency-limit.initial:20}")
+    private int initialLimit;
+
+    @Value("${concurrency-limit.min:5}")
+    private int minLimit;
+
+    @Value("${concurrency-limit.max:200}")
+    private int maxLimit;
+
+    @Value("${concurrency-limit.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${concurrency-limit.long-window:600}")
+    private int longWindow;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private GradientConcurrencyLimit limit;
+
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing, longWindow);
+        Gauge.builder("auth.concurrency.limit", limit, GradientConcurrencyLimit::getLimit).register(meterRegistry);
+        Gauge.builder("auth.concurrency.in-flight", limit, GradientConcurrencyLimit::getInFlight).register(meterRegistry);
+        rejected = Counter.builder("auth.concurrency.rejected").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !enabled || !(uri.equals("/api/auth/login") || uri.equals("/api/auth/signup"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            rejected.increment();
+            response.setHeader("Retry-After", "1");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean sample = false;
+        try {
+            chain.doFilter(request, response);
+            // Shed and failed requests say little about how long real work takes
+            sample = response.getStatus() < 500;
+        } finally {
+            limit.release(System.nanoTime() - started, sample);
+        }
+    }
+
+    public GradientConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+}
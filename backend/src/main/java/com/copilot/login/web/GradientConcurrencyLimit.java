@@ -0,0 +1,89 @@
+package com.copilot.login.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit in the style of Netflix's gradient limiter. The limit follows
+ * the ratio of the long-term average latency to the latest one: while requests are as fast
+ * as usual it grows by a small queue allowance, and once latency rises because work is
+ * queueing it shrinks, so excess requests are rejected before latency collapses.
+ */
+public class GradientConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double longWindowWeight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, int longWindow) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.longWindowWeight = 2.0 / (longWindow + 1);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot. Only successful requests feed the latency estimate.
+     */
+    public void release(long rttNanos, boolean sample) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (sample) {
+            update(rttNanos, inFlightAtCompletion);
+        }
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos = shortRttNanos * 0.5 + rttNanos * 0.5;
+        longRttNanos = longRttNanos * (1 - longWindowWeight) + rttNanos * longWindowWeight;
+
+        // When latency recovers faster than the long-term average adapts, pull it down
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        // Do not grow while the limit is not actually being used
+        if (inFlightAtCompletion < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+        double queueSize = Math.sqrt(current);
+        double target = current * gradient + queueSize;
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+}
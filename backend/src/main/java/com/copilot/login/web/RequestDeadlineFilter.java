@@ -0,0 +1,64 @@
+package com.copilot.login.web;
+
+import com.copilot.login.deadline.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Gives every auth API request a deadline: the client's budget from the timeout header,
+ * capped at {@code request.deadline.max-ms}, or {@code request.deadline.default-ms}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Value("${request.deadline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${request.deadline.header:X-Request-Timeout-Ms}")
+    private String header;
+
+    @Value("${request.deadline.default-ms:2000}")
+    private long defaultMs;
+
+    @Value("${request.deadline.max-ms:10000}")
+    private long maxMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestDeadline.start(timeoutFor(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private long timeoutFor(HttpServletRequest request) {
+        String value = request.getHeader(header);
+        if (value != null) {
+            try {
+                return Math.max(0, Math.min(Long.parseLong(value.trim()), maxMs));
+            } catch (NumberFormatException e) {
+                // Fall back to the default budget
+            }
+        }
+        return defaultMs;
+    }
+
+}
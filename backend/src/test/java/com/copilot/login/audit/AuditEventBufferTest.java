@@ -0,0 +1,91 @@
+package com.copilot.login.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditEventBufferTest {
+
+    @Test
+    void testCapacityIsRoundedToPowerOfTwo() {
+        assertEquals(8, new AuditEventBuffer(5).capacity());
+        assertEquals(8192, new AuditEventBuffer(8192).capacity());
+    }
+
+    @Test
+    void testEventsAreDrainedInOrder() {
+        AuditEventBuffer buffer = new AuditEventBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer(event("user" + i + "@example.com")));
+        }
+
+        List<AuthEvent> batch = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(batch, 3));
+        assertEquals(2, buffer.drainTo(batch, 10));
+
+        assertEquals("user0@example.com", batch.get(0).getEmail());
+        assertEquals("user4@example.com", batch.get(4).getEmail());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testOfferFailsWhenFullAndSucceedsAfterDrain() {
+        AuditEventBuffer buffer = new AuditEventBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(event("full@example.com")));
+        }
+
+        assertFalse(buffer.offer(event("overflow@example.com")));
+
+        buffer.drainTo(new ArrayList<>(), 1);
+        assertTrue(buffer.offer(event("after@example.com")));
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 10_000;
+        AuditEventBuffer buffer = new AuditEventBuffer(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    AuthEvent event = event(producer + ":" + i);
+                    while (!buffer.offer(event)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        Set<String> seen = new HashSet<>();
+        List<AuthEvent> batch = new ArrayList<>();
+        while (seen.size() < producers * perProducer) {
+            batch.clear();
+            buffer.drainTo(batch, 256);
+            batch.forEach(e -> assertTrue(seen.add(e.getEmail())));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(0, buffer.size());
+    }
+
+    private static AuthEvent event(String email) {
+        return new AuthEvent(AuthEventType.LOGIN_SUCCESS, email, null, System.currentTimeMillis());
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.copilot.login.audit;
+
+import com.copilot.login.LoginServiceApplication;
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "audit.flush-interval-ms=50")
+class AuditLogTest {
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection("users");
+    }
+
+    @Test
+    void testFailedLoginIsWrittenAsynchronously() throws Exception {
+        String email = "audit-" + System.nanoTime() + "@example.com";
+
+        assertThrows(RuntimeException.class,
+                () -> authService.login(new LoginRequest(email, "password123")));
+
+        Query query = Query.query(Criteria.where("email").is(email));
+        List<AuthEvent> events = List.of();
+        for (int i = 0; i < 100 && events.isEmpty(); i++) {
+            Thread.sleep(50);
+            events = mongoTemplate.find(query, AuthEvent.class, "auth_events");
+        }
+
+        assertEquals(1, events.size());
+        assertEquals(AuthEventType.LOGIN_FAILURE, events.get(0).getType());
+        assertEquals("User not found", events.get(0).getReason());
+        assertEquals(0, auditLog.getLag());
+    }
+
+    @Test
+    void testEventRecordedDuringShutdownIsWritten() {
+        String email = "shutdown-" + System.nanoTime() + "@example.com";
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                LoginServiceApplication.class, InFlightRequest.class)
+                .properties("server.port=0")
+                .run();
+        AuditLog stoppingLog = context.getBean(AuditLog.class);
+        context.getBean(InFlightRequest.class).onStop =
+                () -> stoppingLog.record(AuthEventType.LOGIN_FAILURE, email, "shutdown");
+
+        context.close();
+
+        assertEquals(1, mongoTemplate.count(Query.query(Criteria.where("email").is(email)), "auth_events"));
+    }
+
+    // Stands in for a request the web server is still draining while the context shuts down
+    static class InFlightRequest implements SmartLifecycle {
+
+        private volatile Runnable onStop;
+        private volatile boolean running;
+
+        @Override
+        public void start() {
+            running = true;
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            if (onStop != null) {
+                onStop.run();
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public int getPhase() {
+            return SmartLifecycle.DEFAULT_PHASE - 1024;
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.copilot.login.cache;
+
+import com.copilot.login.model.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+class CredentialIndexTest {
+
+    private static final String HASH = "$2a$10$abcdefghijklmnopqrstuuABCDEFGHIJKLMNOPQRSTUVWXYZ01234";
+
+    private CredentialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CredentialIndex();
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "segments", 4);
+        ReflectionTestUtils.setField(index, "initialCapacity", 64);
+        ReflectionTestUtils.setField(index, "loadBatchSize", 100);
+        ReflectionTestUtils.setField(index, "ttlMs", 30000L);
+        ReflectionTestUtils.setField(index, "maxLagMs", 5000L);
+        // Empty collection: the deep-stubbed cursor has no documents
+        ReflectionTestUtils.setField(index, "mongoTemplate", mock(MongoTemplate.class, RETURNS_DEEP_STUBS));
+        index.onReset();
+        index.onSynced(System.currentTimeMillis());
+    }
+
+    @Test
+    void testInsertUpdateAndDeleteFromChanges() {
+        ObjectId id = new ObjectId();
+        index.onChanges(List.of(new UserChange(UserChange.Type.INSERT, id.toHexString(), user(id, "old@example.com", true))));
+        assertTrue(index.find("old@example.com").isPresent());
+
+        index.onChanges(List.of(new UserChange(UserChange.Type.UPDATE, id.toHexString(), user(id, "new@example.com", false))));
+        assertTrue(index.find("old@example.com").isEmpty());
+        User user = index.find("new@example.com").orElseThrow();
+        assertEquals(id.toHexString(), user.getId());
+        assertFalse(user.getActive());
+
+        index.onChanges(List.of(new UserChange(UserChange.Type.DELETE, id.toHexString(), null)));
+        assertTrue(index.find("new@example.com").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testStaleEntriesExpireWhileLagging() {
+        ObjectId id = new ObjectId();
+        index.onChanges(List.of(new UserChange(UserChange.Type.INSERT, id.toHexString(), user(id, "lag@example.com", true))));
+        ReflectionTestUtils.setField(index, "ttlMs", 0L);
+        assertTrue(index.find("lag@example.com").isPresent());
+
+        index.onSynced(System.currentTimeMillis() - 60000);
+        assertTrue(index.isLagging());
+        assertTrue(index.find("lag@example.com").isEmpty());
+    }
+
+    @Test
+    void testRefreshOnlyWritesWhileLagging() {
+        User user = new User(new ObjectId().toHexString(), "refresh@example.com", HASH, "Re", "Fresh",
+                true, 0L, 0L);
+
+        index.refresh(user);
+        assertTrue(index.find("refresh@example.com").isEmpty());
+
+        index.onSynced(System.currentTimeMillis() - 60000);
+        index.refresh(user);
+        assertEquals("Re", index.find("refresh@example.com").orElseThrow().getFirstName());
+    }
+
+    @Test
+    void testUserWithOversizedFieldFallsBackToStore() {
+        ObjectId id = new ObjectId();
+        index.onChanges(List.of(new UserChange(UserChange.Type.INSERT, id.toHexString(), user(id, "long@example.com", true))));
+        assertTrue(index.find("long@example.com").isPresent());
+
+        Document renamed = user(id, "long@example.com", true).append("firstName", "x".repeat(40_000));
+        index.onChanges(List.of(new UserChange(UserChange.Type.UPDATE, id.toHexString(), renamed)));
+
+        // Neither the stale entry nor a truncated one is served
+        assertTrue(index.find("long@example.com").isEmpty());
+    }
+
+    private static Document user(ObjectId id, String email, boolean active) {
+        return new Document("_id", id)
+                .append("email", email)
+                .append("password", HASH)
+                .append("firstName", "John")
+                .append("lastName", "Doe")
+                .append("active", active);
+    }
+
+}
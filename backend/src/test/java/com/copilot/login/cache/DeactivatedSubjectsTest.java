@@ -0,0 +1,69 @@
+package com.copilot.login.cache;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeactivatedSubjectsTest {
+
+    private DeactivatedSubjects subjects;
+
+    @BeforeEach
+    void setUp() {
+        subjects = new DeactivatedSubjects();
+    }
+
+    @Test
+    void testAddAndRemoveKeepSetSorted() {
+        for (int i = 0; i < 100; i++) {
+            subjects.add("user" + i + "@example.com");
+        }
+        subjects.add("user5@example.com");
+        assertEquals(100, subjects.size());
+
+        subjects.remove("user5@example.com");
+        subjects.remove("missing@example.com");
+        assertEquals(99, subjects.size());
+        assertFalse(subjects.contains("user5@example.com"));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i != 5, subjects.contains("user" + i + "@example.com"));
+        }
+        assertFalse(subjects.contains(null));
+    }
+
+    @Test
+    void testChangesDeactivateAndReactivate() {
+        ObjectId id = new ObjectId();
+        subjects.onChanges(List.of(new UserChange(UserChange.Type.UPDATE, id.toHexString(), user(id, false))));
+        assertTrue(subjects.contains("john@example.com"));
+
+        subjects.onChanges(List.of(new UserChange(UserChange.Type.UPDATE, id.toHexString(), user(id, true))));
+        assertFalse(subjects.contains("john@example.com"));
+    }
+
+    @Test
+    void testTenantUsersAreKeyedByTenant() {
+        ObjectId id = new ObjectId();
+        subjects.onChanges(List.of(new UserChange(UserChange.Type.INSERT, id.toHexString(),
+                user(id, false).append("tenant", "acme"))));
+        assertEquals(1, subjects.size());
+        assertTrue(subjects.contains("acme", "john@example.com"));
+        assertFalse(subjects.contains("john@example.com"));
+        assertFalse(subjects.contains("other", "john@example.com"));
+
+        subjects.add("john@example.com");
+        subjects.remove("acme", "john@example.com");
+        assertFalse(subjects.contains("acme", "john@example.com"));
+        assertTrue(subjects.contains(null, "john@example.com"));
+    }
+
+    private static Document user(ObjectId id, boolean active) {
+        return new Document("_id", id).append("email", "john@example.com").append("active", active);
+    }
+
+}
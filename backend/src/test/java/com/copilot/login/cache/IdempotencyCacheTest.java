@@ -0,0 +1,93 @@
+package com.copilot.login.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final IdempotencyCache<String> cache = new IdempotencyCache<>(100, 60000);
+
+    @Test
+    void testReplayReturnsOriginalResultWithoutRunningAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = cache.execute("key-1", "request-a", () -> "result-" + calls.incrementAndGet());
+        String second = cache.execute("key-1", "request-a", () -> "result-" + calls.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() {
+        cache.execute("key-1", "request-a", () -> "result");
+
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> cache.execute("key-1", "request-b", () -> "other"));
+    }
+
+    @Test
+    void testFailuresAreNotRemembered() {
+        assertThrows(RuntimeException.class, () -> cache.execute("key-1", "request-a", () -> {
+            throw new RuntimeException("Email already exists");
+        }));
+
+        assertEquals("result", cache.execute("key-1", "request-a", () -> "result"));
+    }
+
+    @Test
+    void testConcurrentRetryWaitsForFirstAttempt() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.execute("key-1", "request-a", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                awaitQuietly(release);
+                return "result";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> retry = executor.submit(() -> cache.execute("key-1", "request-a", () -> {
+                calls.incrementAndGet();
+                return "duplicate";
+            }));
+
+            release.countDown();
+            assertEquals("result", first.get(5, TimeUnit.SECONDS));
+            assertEquals("result", retry.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        IdempotencyCache<String> small = new IdempotencyCache<>(10, 60000);
+        for (int i = 0; i < 100; i++) {
+            small.execute("key-" + i, "request", () -> "result");
+        }
+
+        assertTrue(small.size() <= 10);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.copilot.login.cache;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCredentialTableTest {
+
+    private static final String HASH = "$2a$10$abcdefghijklmnopqrstuuABCDEFGHIJKLMNOPQRSTUVWXYZ01234";
+
+    private OffHeapCredentialTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new OffHeapCredentialTable(4, 16);
+    }
+
+    @Test
+    void testPutAndGet() {
+        byte[] id = new ObjectId().toByteArray();
+        table.put("john@example.com", id, HASH, true, "John", "Doe", 42L);
+
+        OffHeapCredentialTable.Entry entry = table.get("john@example.com");
+        assertNotNull(entry);
+        assertArrayEquals(id, entry.id());
+        assertEquals("john@example.com", entry.email());
+        assertEquals(HASH, entry.passwordHash());
+        assertTrue(entry.active());
+        assertEquals("John", entry.firstName());
+        assertEquals("Doe", entry.lastName());
+        assertEquals(42L, entry.writtenAt());
+        assertNull(table.get("jane@example.com"));
+    }
+
+    @Test
+    void testNullNamesAndInactiveFlag() {
+        table.put("nameless@example.com", new ObjectId().toByteArray(), HASH, false, null, null, 1L);
+
+        OffHeapCredentialTable.Entry entry = table.get("nameless@example.com");
+        assertFalse(entry.active());
+        assertNull(entry.firstName());
+        assertNull(entry.lastName());
+    }
+
+    @Test
+    void testOverwriteKeepsSingleEntry() {
+        byte[] id = new ObjectId().toByteArray();
+        table.put("john@example.com", id, HASH, true, "John", "Doe", 1L);
+        table.put("john@example.com", id, HASH, false, "Johnny", "Doe", 2L);
+
+        assertEquals(1, table.size());
+        assertEquals("Johnny", table.get("john@example.com").firstName());
+        assertFalse(table.get("john@example.com").active());
+    }
+
+    @Test
+    void testGrowsAndRemoves() {
+        byte[][] ids = new byte[5000][];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = new ObjectId().toByteArray();
+            table.put("user" + i + "@example.com", ids[i], HASH, true, "First" + i, "Last" + i, i);
+        }
+        assertEquals(5000, table.size());
+
+        for (int i = 0; i < ids.length; i += 2) {
+            assertTrue(table.remove("user" + i + "@example.com"));
+        }
+        assertEquals(1, table.removeById(ids[1]));
+        assertEquals(2499, table.size());
+
+        assertNull(table.get("user0@example.com"));
+        assertNull(table.get("user1@example.com"));
+        OffHeapCredentialTable.Entry entry = table.get("user4999@example.com");
+        assertArrayEquals(ids[4999], entry.id());
+        assertEquals("First4999", entry.firstName());
+        assertFalse(table.remove("user0@example.com"));
+    }
+
+    @Test
+    void testRepeatedUpdatesKeepMemoryBounded() {
+        byte[] id = new ObjectId().toByteArray();
+        for (int i = 0; i < 100; i++) {
+            table.put("user" + i + "@example.com", new ObjectId().toByteArray(), HASH, true, "First", "Last", i);
+        }
+        long initial = table.offHeapBytes();
+
+        for (int i = 0; i < 200_000; i++) {
+            // Alternate between profiles that fit in place and ones that must be appended
+            String firstName = "Name" + "x".repeat(i % 20);
+            table.put("john@example.com", id, HASH, true, firstName, "Doe", i);
+            if (i % 10 == 0) {
+                table.remove("churn@example.com");
+                table.put("churn@example.com", id, HASH, true, firstName, "Doe", i);
+            }
+        }
+
+        assertEquals(102, table.size());
+        assertEquals("Name" + "x".repeat(199_999 % 20), table.get("john@example.com").firstName());
+        assertEquals("First", table.get("user42@example.com").firstName());
+        assertTrue(table.offHeapBytes() <= initial * 4,
+                "off-heap bytes grew from " + initial + " to " + table.offHeapBytes());
+    }
+
+    @Test
+    void testRejectsUnsupportedHash() {
+        assertThrows(IllegalArgumentException.class,
+                () -> table.put("john@example.com", new ObjectId().toByteArray(), "plain", true, "John", "Doe", 1L));
+    }
+
+    @Test
+    void testRejectsFieldTooLongForLengthPrefix() {
+        String longName = "x".repeat(OffHeapCredentialTable.MAX_FIELD_BYTES + 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> table.put("john@example.com", new ObjectId().toByteArray(), HASH, true, longName, "Doe", 1L));
+        assertNull(table.get("john@example.com"));
+
+        String longestName = "x".repeat(OffHeapCredentialTable.MAX_FIELD_BYTES);
+        table.put("john@example.com", new ObjectId().toByteArray(), HASH, true, longestName, "Doe", 1L);
+        assertEquals(longestName, table.get("john@example.com").firstName());
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.copilot.login.config;
+
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeHintsConfigTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeHintsConfig.LoginServiceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testDtoAndModelHintsAreRegistered() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(LoginRequest.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(User.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)
+                .test(hints));
+    }
+
+    @Test
+    void testJjwtHintsAreRegistered() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtBuilder"))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/io.jsonwebtoken.io.Serializer")
+                .test(hints));
+    }
+
+}
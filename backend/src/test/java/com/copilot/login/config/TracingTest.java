@@ -0,0 +1,103 @@
+package com.copilot.login.config;
+
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.dto.SignupRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.tracing.sampling.probability=0.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class TracingTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @BeforeEach
+    void setUp() {
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        spanExporter.reset();
+    }
+
+    @Test
+    void testSampledIncomingTraceCoversEveryLoginStage() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SignupRequest(email, "password123", "Trace", "User"))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/auth/login")
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest(email, "password123"))))
+                .andExpect(status().isOk());
+
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        List<SpanData> spans = spanExporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getTraceId().equals(TRACE_ID))
+                .toList();
+        Set<String> names = spans.stream().map(SpanData::getName).collect(Collectors.toSet());
+
+        assertTrue(names.containsAll(Set.of("auth.login", "login lookup", "login hash", "login sign")), names.toString());
+        assertTrue(spans.stream().anyMatch(span ->
+                "mongodb".equals(span.getAttributes().get(AttributeKey.stringKey("db.system")))), names.toString());
+        assertTrue(spans.stream().anyMatch(span -> span.getName().startsWith("http post")), names.toString());
+    }
+
+    @Test
+    void testUnsampledRequestsExportNothing() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("nobody@example.com", "password123"))))
+                .andExpect(status().isUnauthorized());
+
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        assertTrue(spanExporter.getFinishedSpanItems().isEmpty());
+    }
+
+}
@@ -1,7 +1,9 @@
 package com.copilot.login.controller;
 
+import com.copilot.login.dto.IntrospectionRequest;
 import com.copilot.login.dto.LoginRequest;
 import com.copilot.login.dto.SignupRequest;
+import com.copilot.login.security.JwtTokenProvider;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +12,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -24,6 +31,9 @@ class AuthControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
     @Test
     void testHealthEndpointIsPublic() throws Exception {
         mockMvc.perform(get("/api/auth/health"))
@@ -41,6 +51,17 @@ class AuthControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void testLoginPastDeadlineIsShed() throws Exception {
+        LoginRequest request = new LoginRequest("test@example.com", "password123");
+
+        mockMvc.perform(post("/api/auth/login")
+                .header("X-Request-Timeout-Ms", "0")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void testSignupEndpointExists() throws Exception {
         SignupRequest request = new SignupRequest(
@@ -56,4 +77,114 @@ class AuthControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void testSignupRetryWithIdempotencyKeyReplaysResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        SignupRequest request = new SignupRequest(key + "@example.com", "password123", "Retry", "User");
+        String body = objectMapper.writeValueAsString(request);
+
+        String first = mockMvc.perform(post("/api/auth/signup")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/api/auth/signup")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(first));
+
+        SignupRequest changed = new SignupRequest(key + "@example.com", "password456", "Retry", "User");
+        mockMvc.perform(post("/api/auth/signup")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(changed)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testListAndRevokeSessions() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SignupRequest(email, "password123", "Multi", "Device"))))
+                .andExpect(status().isCreated());
+        String laptop = loginToken(email, "Laptop");
+        String phone = loginToken(email, "Phone");
+
+        String listed = mockMvc.perform(get("/api/auth/sessions")
+                .header("Authorization", "Bearer " + laptop))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andReturn().getResponse().getContentAsString();
+        String phoneSession = null;
+        for (var session : objectMapper.readTree(listed)) {
+            if ("Phone".equals(session.get("device").asText())) {
+                phoneSession = session.get("id").asText();
+            }
+        }
+
+        mockMvc.perform(delete("/api/auth/sessions/" + phoneSession)
+                .header("Authorization", "Bearer " + laptop))
+                .andExpect(status().isNoContent());
+        assertFalse(jwtTokenProvider.validateToken(phone));
+        assertTrue(jwtTokenProvider.validateToken(laptop));
+
+        mockMvc.perform(delete("/api/auth/sessions")
+                .header("Authorization", "Bearer " + laptop))
+                .andExpect(status().isNoContent());
+        assertFalse(jwtTokenProvider.validateToken(laptop));
+        mockMvc.perform(get("/api/auth/sessions")
+                .header("Authorization", "Bearer " + laptop))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String loginToken(String email, String device) throws Exception {
+        String response = mockMvc.perform(post("/api/auth/login")
+                .header("User-Agent", device)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("token").asText();
+    }
+
+    @Test
+    void testIntrospectEndpointReturnsResultPerToken() throws Exception {
+        String token = jwtTokenProvider.generateToken("gateway@example.com");
+        IntrospectionRequest request = new IntrospectionRequest(List.of(token, "invalid.token.here"));
+
+        mockMvc.perform(post("/api/auth/introspect")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(2)))
+                .andExpect(jsonPath("$.results[0].active").value(true))
+                .andExpect(jsonPath("$.results[0].subject").value("gateway@example.com"))
+                .andExpect(jsonPath("$.results[1].active").value(false));
+    }
+
+    @Test
+    void testIntrospectEndpointRejectsEmptyBatch() throws Exception {
+        IntrospectionRequest request = new IntrospectionRequest(Collections.emptyList());
+
+        mockMvc.perform(post("/api/auth/introspect")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCorsPreflightIsAnsweredWithMaxAge() throws Exception {
+        mockMvc.perform(options("/api/auth/login")
+                .header("Origin", "http://localhost:5173")
+                .header("Access-Control-Request-Method", "POST"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Allow-Origin", "*"))
+                .andExpect(header().string("Access-Control-Max-Age", "3600"));
+    }
+
 }
@@ -0,0 +1,105 @@
+package com.copilot.login.controller;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of the health endpoint and a CORS preflight under the perf profile:
+ * a fresh TCP connection per request vs HTTP/1.1 keep-alive vs h2c.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@ActiveProfiles("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class HttpConnectionBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 10_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void compareConnectionReuse() throws Exception {
+        HttpClient http1 = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpClient http2 = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/health"))
+                .GET()
+                .build();
+        HttpRequest preflight = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .method("OPTIONS", HttpRequest.BodyPublishers.noBody())
+                .header("Origin", "http://localhost:5173")
+                .header("Access-Control-Request-Method", "POST")
+                .build();
+
+        // First request performs the h2c upgrade; everything after is multiplexed on that connection
+        assertEquals(HttpClient.Version.HTTP_2,
+                http2.send(health, HttpResponse.BodyHandlers.discarding()).version());
+
+        report("health, new connection per request", measure(this::sendWithNewConnection));
+        report("health, HTTP/1.1 keep-alive", measure(() -> http1.send(health, HttpResponse.BodyHandlers.discarding())));
+        report("health, h2c", measure(() -> http2.send(health, HttpResponse.BodyHandlers.discarding())));
+        report("preflight, HTTP/1.1 keep-alive", measure(() -> http1.send(preflight, HttpResponse.BodyHandlers.discarding())));
+        report("preflight, h2c", measure(() -> http2.send(preflight, HttpResponse.BodyHandlers.discarding())));
+    }
+
+    private void sendWithNewConnection() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /api/auth/health HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            while (in.read() != -1) {
+                // drain until the server closes the connection
+            }
+        }
+    }
+
+    private static long[] measure(Call call) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            call.run();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static void report(String name, long[] sorted) {
+        long total = 0;
+        for (long sample : sorted) {
+            total += sample;
+        }
+        System.out.printf("%-36s mean=%6d us  p50=%6d us  p99=%6d us%n", name,
+                total / sorted.length / 1000,
+                sorted[sorted.length / 2] / 1000,
+                sorted[(int) (sorted.length * 0.99)] / 1000);
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run() throws Exception;
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.copilot.login.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JsonTest
+class AuthDtoJsonComponentTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testLoginRequestRoundTrip() throws Exception {
+        LoginRequest request = new LoginRequest("test@example.com", "password123");
+
+        String json = objectMapper.writeValueAsString(request);
+        LoginRequest parsed = objectMapper.readValue(json, LoginRequest.class);
+
+        assertEquals("{\"email\":\"test@example.com\",\"password\":\"password123\"}", json);
+        assertEquals(request, parsed);
+    }
+
+    @Test
+    void testLoginResponseRoundTrip() throws Exception {
+        LoginResponse response = new LoginResponse("token", "test@example.com", "John", "Doe", 86400000L);
+
+        LoginResponse parsed = objectMapper.readValue(objectMapper.writeValueAsString(response), LoginResponse.class);
+
+        assertEquals(response, parsed);
+    }
+
+    @Test
+    void testSignupRequestRoundTrip() throws Exception {
+        SignupRequest request = new SignupRequest("new@example.com", "password123", "Jane", "Doe");
+
+        SignupRequest parsed = objectMapper.readValue(objectMapper.writeValueAsString(request), SignupRequest.class);
+
+        assertEquals(request, parsed);
+    }
+
+    @Test
+    void testSignupResponseRoundTripWithNulls() throws Exception {
+        SignupResponse response = new SignupResponse("507f1f77bcf86cd799439011", "new@example.com", null, null, "ok");
+
+        String json = objectMapper.writeValueAsString(response);
+        SignupResponse parsed = objectMapper.readValue(json, SignupResponse.class);
+
+        assertTrue(json.contains("\"firstName\":null"));
+        assertEquals(response, parsed);
+    }
+
+    @Test
+    void testUnknownFieldsAreSkipped() throws Exception {
+        String json = "{\"email\":\"a@example.com\",\"extra\":{\"nested\":[1,2]},\"password\":\"pw\"}";
+
+        LoginRequest parsed = objectMapper.readValue(json, LoginRequest.class);
+
+        assertEquals("a@example.com", parsed.getEmail());
+        assertEquals("pw", parsed.getPassword());
+    }
+
+    @Test
+    void testNonObjectInputIsRejected() {
+        assertThrows(Exception.class, () -> objectMapper.readValue("[\"a\"]", LoginRequest.class));
+    }
+
+    @Test
+    void testTenantIsWrittenOnlyWhenSet() throws Exception {
+        LoginRequest request = new LoginRequest("test@example.com", "password123", "acme");
+
+        String json = objectMapper.writeValueAsString(request);
+        LoginRequest parsed = objectMapper.readValue(json, LoginRequest.class);
+
+        assertTrue(json.contains("\"tenant\":\"acme\""));
+        assertEquals(request, parsed);
+        assertFalse(objectMapper.writeValueAsString(new LoginRequest("a@example.com", "pw")).contains("tenant"));
+    }
+
+}
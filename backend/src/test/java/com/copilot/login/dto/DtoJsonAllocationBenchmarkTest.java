@@ -0,0 +1,68 @@
+package com.copilot.login.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares bytes allocated per login/signup round trip between a plain reflective
+ * ObjectMapper and the application's mapper. Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@JsonTest
+class DtoJsonAllocationBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void compareAllocationPerOperation() throws Exception {
+        ObjectMapper reflective = new ObjectMapper();
+
+        long before = measure(reflective);
+        long after = measure(objectMapper);
+
+        System.out.printf("DTO JSON round trip: reflective=%d B/op, application=%d B/op%n", before, after);
+        assertTrue(after <= before, "Application mapper allocates more than reflective binding");
+    }
+
+    private long measure(ObjectMapper mapper) throws Exception {
+        byte[] loginJson = "{\"email\":\"bench@example.com\",\"password\":\"password123\"}".getBytes();
+        byte[] signupJson = ("{\"email\":\"bench@example.com\",\"password\":\"password123\","
+                + "\"firstName\":\"Bench\",\"lastName\":\"Mark\"}").getBytes();
+        LoginResponse loginResponse = new LoginResponse("header.payload.signature", "bench@example.com",
+                "Bench", "Mark", 86400000L);
+        SignupResponse signupResponse = new SignupResponse("507f1f77bcf86cd799439011", "bench@example.com",
+                "Bench", "Mark", "User registered successfully");
+
+        for (int i = 0; i < WARMUP; i++) {
+            roundTrip(mapper, loginJson, signupJson, loginResponse, signupResponse);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            roundTrip(mapper, loginJson, signupJson, loginResponse, signupResponse);
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - start) / ITERATIONS;
+    }
+
+    private static void roundTrip(ObjectMapper mapper, byte[] loginJson, byte[] signupJson,
+                                  LoginResponse loginResponse, SignupResponse signupResponse) throws Exception {
+        mapper.readValue(loginJson, LoginRequest.class);
+        mapper.writeValueAsBytes(loginResponse);
+        mapper.readValue(signupJson, SignupRequest.class);
+        mapper.writeValueAsBytes(signupResponse);
+    }
+
+}
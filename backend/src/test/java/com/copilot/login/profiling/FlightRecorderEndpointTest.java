@@ -0,0 +1,108 @@
+package com.copilot.login.profiling;
+
+import com.copilot.login.dto.SignupRequest;
+import com.copilot.login.service.AuthService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "jfr.dump-directory=target/jfr-test",
+        "management.endpoints.web.exposure.include=health,flightrecorder",
+        "spring.security.user.name=ops",
+        "spring.security.user.password=secret"
+})
+@AutoConfigureMockMvc
+class FlightRecorderEndpointTest {
+
+    private static final RequestPostProcessor OPS = httpBasic("ops", "secret");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthService authService;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAnonymousCallersAreRejected() throws Exception {
+        mockMvc.perform(get("/actuator/flightrecorder"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/actuator/flightrecorder")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"settings\":\"profile\"}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testContinuousRecordingIsListed() throws Exception {
+        mockMvc.perform(get("/actuator/flightrecorder").with(OPS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem(FlightRecorderService.CONTINUOUS_NAME)));
+    }
+
+    @Test
+    void testOnDemandRecordingCapturesAuthStages() throws Exception {
+        String started = mockMvc.perform(post("/actuator/flightrecorder").with(OPS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"login-test\",\"settings\":\"\",\"durationSeconds\":60}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(started).get("id").asLong();
+
+        authService.signup(new SignupRequest(UUID.randomUUID() + "@example.com", "password123", "Jfr", "User"));
+
+        byte[] dump = mockMvc.perform(get("/actuator/flightrecorder/" + id).with(OPS))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        Path file = tempDir.resolve("dump.jfr");
+        Files.write(file, dump);
+
+        List<RecordedEvent> stages = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.copilot.login.AuthStage"))
+                .toList();
+        assertTrue(stages.stream().anyMatch(event ->
+                "signup".equals(event.getString("operation")) && "hash".equals(event.getString("stage"))));
+
+        try (Stream<Path> kept = Files.list(Path.of("target/jfr-test"))) {
+            assertEquals(0, kept.count(), "Dump file was not deleted after download");
+        }
+
+        mockMvc.perform(delete("/actuator/flightrecorder/" + id).with(OPS))
+                .andExpect(status().is2xxSuccessful());
+        JsonNode remaining = objectMapper.readTree(mockMvc.perform(get("/actuator/flightrecorder").with(OPS))
+                .andReturn().getResponse().getContentAsString());
+        for (JsonNode recording : remaining) {
+            assertNotEquals(id, recording.get("id").asLong());
+        }
+    }
+
+}
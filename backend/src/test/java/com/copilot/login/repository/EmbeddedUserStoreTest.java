@@ -0,0 +1,102 @@
+package com.copilot.login.repository;
+
+import com.copilot.login.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedUserStoreTest {
+
+    private EmbeddedUserStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new EmbeddedUserStore("");
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testSaveAssignsIdAndFindsByEmail() {
+        User saved = store.save(user("embedded@example.com", null));
+
+        assertNotNull(saved.getId());
+        Optional<User> found = store.findByEmail(null, "embedded@example.com");
+        assertTrue(found.isPresent());
+        assertEquals(saved.getId(), found.get().getId());
+        assertEquals("John", found.get().getFirstName());
+        assertTrue(found.get().getActive());
+        assertTrue(store.existsByEmail(null, "embedded@example.com"));
+        assertFalse(store.existsByEmail(null, "missing@example.com"));
+    }
+
+    @Test
+    void testDuplicateEmailIsRejectedPerTenant() {
+        store.save(user("dup@example.com", null));
+
+        assertThrows(DuplicateKeyException.class, () -> store.save(user("dup@example.com", null)));
+        assertDoesNotThrow(() -> store.save(user("dup@example.com", "acme")));
+        assertFalse(store.existsByEmail("other", "dup@example.com"));
+    }
+
+    @Test
+    void testEmailChangeMovesIndexEntry() {
+        User saved = store.save(user("old@example.com", null));
+
+        saved.setEmail("new@example.com");
+        store.save(saved);
+
+        assertFalse(store.existsByEmail(null, "old@example.com"));
+        assertEquals(saved.getId(), store.findByEmail(null, "new@example.com").orElseThrow().getId());
+        assertEquals(1, store.count());
+    }
+
+    @Test
+    void testLoginActivityIsMerged() {
+        User saved = store.save(user("activity@example.com", null));
+
+        store.updateLoginActivity(null, List.of(new UserStore.LoginActivityUpdate(saved.getId(), 2000L, 3L)));
+        store.updateLoginActivity(null, List.of(new UserStore.LoginActivityUpdate(saved.getId(), 1000L, 1L)));
+
+        User updated = store.findByEmail(null, "activity@example.com").orElseThrow();
+        assertEquals(2000L, updated.getLastLoginAt());
+        assertEquals(4L, updated.getLoginCount());
+    }
+
+    @Test
+    void testFileStoreSurvivesReopen(@TempDir Path dir) {
+        String path = dir.resolve("users.db").toString();
+        String id;
+        try (EmbeddedUserStore fileStore = new EmbeddedUserStore(path)) {
+            id = fileStore.save(user("persisted@example.com", "acme")).getId();
+        }
+
+        try (EmbeddedUserStore reopened = new EmbeddedUserStore(path)) {
+            User user = reopened.findByEmail("acme", "persisted@example.com").orElseThrow();
+            assertEquals(id, user.getId());
+            assertEquals("acme", user.getTenant());
+        }
+    }
+
+    private static User user(String email, String tenant) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ9Xy3V3b8b4F5m5jT0f5m4m1Cq7QeS2");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setTenant(tenant);
+        return user;
+    }
+
+}
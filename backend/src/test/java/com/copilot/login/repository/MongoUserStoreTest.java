@@ -0,0 +1,137 @@
+package com.copilot.login.repository;
+
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.dto.LoginResponse;
+import com.copilot.login.dto.SessionSummary;
+import com.copilot.login.dto.SignupRequest;
+import com.copilot.login.dto.SignupResponse;
+import com.copilot.login.model.User;
+import com.copilot.login.security.JwtTokenProvider;
+import com.copilot.login.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "tenancy.tenants.acme.collection=users_acme")
+class MongoUserStoreTest {
+
+    @Autowired
+    private UserStore userStore;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection("users");
+        mongoTemplate.remove(new Query(), "users_acme");
+    }
+
+    @Test
+    void testSameEmailInDifferentTenants() {
+        SignupResponse defaultUser = authService.signup(
+                new SignupRequest("shared@example.com", "default-pass", "Default", "User"));
+        SignupResponse acmeUser = authService.signup(
+                new SignupRequest("shared@example.com", "acme-pass", "Acme", "User", "acme"));
+
+        assertNotEquals(defaultUser.getId(), acmeUser.getId());
+        assertEquals(1, mongoTemplate.getCollection("users").countDocuments());
+        assertEquals(1, mongoTemplate.getCollection("users_acme").countDocuments());
+
+        LoginResponse response = authService.login(new LoginRequest("shared@example.com", "acme-pass", "acme"));
+        assertEquals("Acme", response.getFirstName());
+        assertThrows(RuntimeException.class,
+                () -> authService.login(new LoginRequest("shared@example.com", "acme-pass")));
+    }
+
+    @Test
+    void testTenantIsStoredOnUser() {
+        authService.signup(new SignupRequest("tenant@example.com", "password123", "Ten", "Ant", "acme"));
+
+        User user = userStore.findByEmail("acme", "tenant@example.com").orElseThrow();
+
+        assertEquals("acme", user.getTenant());
+        assertTrue(userStore.existsByEmail("acme", "tenant@example.com"));
+        assertFalse(userStore.existsByEmail(null, "tenant@example.com"));
+    }
+
+    @Test
+    void testDefaultTenantNameRoutesToUsersCollection() {
+        authService.signup(new SignupRequest("default@example.com", "password123", "Def", "Ault", "default"));
+
+        User user = userStore.findByEmail(null, "default@example.com").orElseThrow();
+
+        assertNull(user.getTenant());
+    }
+
+    @Test
+    void testMongoStoreIsTheDefaultBackend() {
+        assertInstanceOf(MongoUserStore.class, userStore);
+    }
+
+    @Test
+    void testLoginActivityIsAppliedInBulk() {
+        User user = new User();
+        user.setEmail("bulk@example.com");
+        user.setPassword("hash");
+        User saved = userStore.save(user);
+
+        userStore.updateLoginActivity(null, List.of(new UserStore.LoginActivityUpdate(saved.getId(), 1000L, 2L)));
+        userStore.updateLoginActivity(null, List.of(new UserStore.LoginActivityUpdate(saved.getId(), 500L, 1L)));
+
+        User updated = userStore.findByEmail(null, "bulk@example.com").orElseThrow();
+        assertEquals(1000L, updated.getLastLoginAt());
+        assertEquals(3L, updated.getLoginCount());
+    }
+
+    @Test
+    void testUnknownTenantIsRejected() {
+        assertThrows(RuntimeException.class,
+                () -> userStore.findByEmail("unknown", "someone@example.com"));
+        assertThrows(RuntimeException.class,
+                () -> authService.signup(new SignupRequest("x@example.com", "pw", "X", "Y", "unknown")));
+    }
+
+    @Test
+    void testSessionsAreSeparatedBetweenTenantsSharingAnEmail() {
+        // Sessions outlive the users collection, so each run uses a fresh email
+        String email = UUID.randomUUID() + "@example.com";
+        authService.signup(new SignupRequest(email, "default-pass", "Default", "User"));
+        authService.signup(new SignupRequest(email, "acme-pass", "Acme", "User", "acme"));
+        String defaultToken = authService.login(new LoginRequest(email, "default-pass")).getToken();
+        String acmeToken = authService.login(new LoginRequest(email, "acme-pass", "acme")).getToken();
+
+        List<SessionSummary> defaultSessions = authService.listSessions(defaultToken);
+        List<SessionSummary> acmeSessions = authService.listSessions(acmeToken);
+        assertEquals(1, defaultSessions.size());
+        assertEquals(1, acmeSessions.size());
+        assertNotEquals(defaultSessions.get(0).getId(), acmeSessions.get(0).getId());
+
+        // A token for the acme session without its tenant must not reach the default user's sessions
+        User withoutTenant = userStore.findByEmail("acme", email).orElseThrow();
+        withoutTenant.setTenant(null);
+        String stripped = jwtTokenProvider.generateToken(withoutTenant, acmeSessions.get(0).getId());
+        assertThrows(RuntimeException.class, () -> authService.listSessions(stripped));
+        assertThrows(RuntimeException.class, () -> authService.revokeAllSessions(stripped));
+
+        authService.revokeAllSessions(acmeToken);
+        assertTrue(jwtTokenProvider.introspect(defaultToken).isActive());
+        assertFalse(jwtTokenProvider.introspect(acmeToken).isActive());
+        assertEquals(1, authService.listSessions(defaultToken).size());
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.copilot.login.repository;
+
+import com.copilot.login.config.TenancyProperties;
+import com.mongodb.client.MongoDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TenantRouterTest {
+
+    private TenantRouter router;
+
+    private TenancyProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        router = new TenantRouter();
+        properties = new TenancyProperties();
+        ReflectionTestUtils.setField(router, "properties", properties);
+        // Stubbed up front: Mockito stubs are safe to call from several threads, but not to create
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(mongoTemplate.indexOps(anyString())).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.getName()).thenReturn("login");
+        ReflectionTestUtils.setField(router, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void testUriWithoutDatabaseFailsAtStartup() {
+        TenancyProperties.Tenant tenant = new TenancyProperties.Tenant();
+        tenant.setUri("mongodb://bigcorp-db:27017");
+        properties.getTenants().put("bigcorp", tenant);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, router::validate);
+        assertTrue(exception.getMessage().contains("tenancy.tenants.bigcorp.database"));
+
+        tenant.setDatabase("login_bigcorp");
+        assertDoesNotThrow(router::validate);
+    }
+
+    @Test
+    void testConcurrentFirstRequestsShareOneRoute() throws Exception {
+        properties.getTenants().put("acme", new TenancyProperties.Tenant());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<TenantRouter.Route>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(() -> router.route("acme"));
+            }
+            List<Future<TenantRouter.Route>> routes = executor.invokeAll(calls);
+            TenantRouter.Route first = routes.get(0).get();
+            assertEquals("users_acme", first.collection());
+            for (Future<TenantRouter.Route> route : routes) {
+                assertSame(first, route.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThrows(RuntimeException.class, () -> router.route("unknown"));
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.copilot.login.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreachCorpusTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testFindsBreachedPasswordsOnly() throws IOException {
+        List<byte[]> digests = new ArrayList<>();
+        for (String password : List.of("password123", "123456", "qwerty", "letmein")) {
+            digests.add(BreachCorpus.sha1(password));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            byte[] digest = new byte[BreachCorpus.RECORD_SIZE];
+            random.nextBytes(digest);
+            digests.add(digest);
+        }
+        byte[] highest = new byte[BreachCorpus.RECORD_SIZE];
+        Arrays.fill(highest, (byte) 0xff);
+        digests.add(highest);
+
+        BreachCorpus corpus = new BreachCorpus(build(digests, 1));
+
+        assertEquals(digests.size(), corpus.size());
+        assertTrue(corpus.contains("password123"));
+        assertTrue(corpus.contains("letmein"));
+        assertFalse(corpus.contains("correct horse battery staple"));
+        for (byte[] digest : digests) {
+            assertTrue(corpus.containsDigest(digest));
+        }
+        assertFalse(corpus.containsDigest(new byte[BreachCorpus.RECORD_SIZE]));
+    }
+
+    @Test
+    void testBuilderSkipsRareHashes() throws IOException {
+        Path input = dir.resolve("hibp.txt");
+        HexFormat hex = HexFormat.of().withUpperCase();
+        List<String> lines = new ArrayList<>(List.of(
+                hex.formatHex(BreachCorpus.sha1("password123")) + ":250",
+                hex.formatHex(BreachCorpus.sha1("rarely-used")) + ":1"));
+        lines.sort(null);
+        Files.write(input, lines);
+        Path output = dir.resolve("breach.bin");
+
+        assertEquals(1, BreachCorpusBuilder.build(input, output, 10));
+        BreachCorpus corpus = new BreachCorpus(output);
+        assertTrue(corpus.contains("password123"));
+        assertFalse(corpus.contains("rarely-used"));
+    }
+
+    @Test
+    void testBuilderRejectsUnsortedInput() throws IOException {
+        Path input = dir.resolve("unsorted.txt");
+        Files.write(input, List.of("F" + "0".repeat(39) + ":1", "0".repeat(40) + ":1"));
+
+        assertThrows(IOException.class, () -> BreachCorpusBuilder.build(input, dir.resolve("out.bin"), 1));
+    }
+
+    @Test
+    void testRejectsTruncatedCorpus() throws IOException {
+        Path file = dir.resolve("truncated.bin");
+        Files.write(file, new byte[BreachCorpus.RECORD_SIZE + 3]);
+
+        assertThrows(IOException.class, () -> new BreachCorpus(file));
+    }
+
+    private Path build(List<byte[]> digests, long count) throws IOException {
+        HexFormat hex = HexFormat.of().withUpperCase();
+        List<String> lines = new ArrayList<>();
+        digests.stream().sorted(Arrays::compareUnsigned).forEach(d -> lines.add(hex.formatHex(d) + ":" + count));
+        Path input = dir.resolve("hibp.txt");
+        Files.write(input, lines);
+        Path output = dir.resolve("breach.bin");
+        BreachCorpusBuilder.build(input, output, 1);
+        return output;
+    }
+
+}
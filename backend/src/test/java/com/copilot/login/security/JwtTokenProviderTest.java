@@ -1,10 +1,15 @@
 package com.copilot.login.security;
 
+import com.copilot.login.dto.TokenIntrospection;
+import com.copilot.login.model.User;
+import com.copilot.login.session.SessionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -13,6 +18,9 @@ class JwtTokenProviderTest {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     private String testEmail;
     private String validToken;
 
@@ -96,4 +104,102 @@ class JwtTokenProviderTest {
         assertEquals(specialEmail, jwtTokenProvider.getEmailFromToken(token));
     }
 
+    @Test
+    void testIntrospectValidToken() {
+        TokenIntrospection introspection = jwtTokenProvider.introspect(validToken);
+
+        assertTrue(introspection.isActive());
+        assertEquals(testEmail, introspection.getSubject());
+        assertTrue(introspection.getExpiresAt() > System.currentTimeMillis());
+    }
+
+    @Test
+    void testIntrospectInvalidToken() {
+        TokenIntrospection introspection = jwtTokenProvider.introspect("invalid.token.here");
+
+        assertFalse(introspection.isActive());
+        assertNull(introspection.getSubject());
+        assertNull(introspection.getExpiresAt());
+    }
+
+    @Test
+    void testIntrospectUsesVerifiedTokenCache() {
+        String token = jwtTokenProvider.generateToken("cached@example.com");
+
+        assertNull(verifiedTokenCache.get(token));
+
+        TokenIntrospection first = jwtTokenProvider.introspect(token);
+        assertNotNull(verifiedTokenCache.get(token));
+        TokenIntrospection second = jwtTokenProvider.introspect(token);
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void testCachedIntrospectionCannotBeModified() {
+        User user = new User();
+        user.setId("507f1f77bcf86cd799439011");
+        user.setEmail("immutable@example.com");
+        user.setFirstName("John");
+        String token = jwtTokenProvider.generateToken(user);
+
+        TokenIntrospection introspection = jwtTokenProvider.introspect(token);
+        assertThrows(UnsupportedOperationException.class,
+                () -> introspection.getClaims().put("given_name", "Mallory"));
+        assertEquals("John", jwtTokenProvider.introspect(token).getClaims().get("given_name"));
+    }
+
+    @Test
+    void testGenerateTokenWithProfileClaims() {
+        User user = new User();
+        user.setId("507f1f77bcf86cd799439011");
+        user.setEmail("profile@example.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+
+        String token = jwtTokenProvider.generateToken(user);
+        TokenIntrospection introspection = jwtTokenProvider.introspect(token);
+
+        assertTrue(introspection.isActive());
+        assertEquals("profile@example.com", introspection.getSubject());
+        Map<String, Object> claims = introspection.getClaims();
+        assertEquals("507f1f77bcf86cd799439011", claims.get("uid"));
+        assertEquals("John", claims.get("given_name"));
+        assertEquals("Doe", claims.get("family_name"));
+        assertEquals(true, claims.get("active"));
+    }
+
+    @Test
+    void testProfileClaimsRespectSizeBudget() {
+        User user = new User();
+        user.setId("507f1f77bcf86cd799439011");
+        user.setEmail("budget@example.com");
+        user.setFirstName("x".repeat(1000));
+        user.setLastName("Doe");
+
+        Map<String, Object> claims = jwtTokenProvider.profileClaimsFor(user);
+
+        assertFalse(claims.containsKey("given_name"));
+        assertEquals("Doe", claims.get("family_name"));
+    }
+
+    @Test
+    void testTenantClaimSurvivesExhaustedBudget() {
+        User user = new User();
+        user.setId("507f1f77bcf86cd799439011");
+        user.setEmail("budget@example.com");
+        user.setFirstName("x".repeat(454));
+        user.setTenant("acme");
+
+        TokenIntrospection introspection = jwtTokenProvider.introspect(jwtTokenProvider.generateToken(user));
+
+        assertEquals("acme", introspection.getClaims().get(JwtTokenProvider.TENANT_CLAIM));
+        assertEquals(SessionRegistry.subjectKey("acme", "budget@example.com"), jwtTokenProvider.sessionSubject(introspection));
+    }
+
+    @Test
+    void testPlainTokenHasNoProfileClaims() {
+        assertNull(jwtTokenProvider.introspect(validToken).getClaims());
+    }
+
 }
@@ -0,0 +1,198 @@
+package com.copilot.login.service;
+
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.dto.SignupRequest;
+import com.copilot.login.security.JwtTokenProvider;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fixed signup/login/validate workload against the embedded in-memory store, compared
+ * with the throughput and bytes allocated per operation recorded in a baseline file.
+ * Recording also stores each measurement's tolerance, twice the spread seen between
+ * rounds. Fails when an operation is slower, or allocates more, than the baseline by more
+ * than that tolerance (never less than {@code perf.threshold}). Run with: mvn test -Pperf-gate
+ */
+@Tag("perfgate")
+@SpringBootTest(properties = {
+        "user.store.type=embedded",
+        "user.store.embedded.path=",
+        "audit.enabled=false",
+        "jwt.cache.max-size=0"
+})
+class AuthPerformanceGateTest {
+
+    private static final int ROUNDS = 5;
+    private static final int WARMUP_HASHES = 10;
+    private static final int SIGNUPS = 40;
+    private static final int LOGINS = 40;
+    private static final int VALIDATIONS = 20_000;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void workloadStaysWithinBaseline() throws IOException {
+        Path baselineFile = Paths.get(System.getProperty("perf.baseline-file", "perf/baseline.properties"));
+        double threshold = Double.parseDouble(System.getProperty("perf.threshold", "0.10"));
+        boolean updateBaseline = Boolean.parseBoolean(System.getProperty("perf.update-baseline", "false"));
+
+        Map<String, Result> results = run();
+        results.forEach((op, result) -> System.out.printf(Locale.ROOT,
+                "perf-gate %s: %.1f ops/s (spread %.1f%%), %d B/op (spread %.1f%%)%n", op,
+                result.opsPerSecond, result.throughputSpread * 100, result.bytesPerOp, result.allocationSpread * 100));
+
+        if (updateBaseline) {
+            writeBaseline(baselineFile, results);
+            System.out.println("perf-gate: baseline written to " + baselineFile.toAbsolutePath());
+            return;
+        }
+        assertTrue(Files.exists(baselineFile), "No performance baseline at " + baselineFile.toAbsolutePath()
+                + "; record one with -Dperf.update-baseline=true");
+
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselineFile)) {
+            baseline.load(reader);
+        }
+        List<String> regressions = new ArrayList<>();
+        results.forEach((op, result) -> {
+            String throughput = baseline.getProperty(op + ".ops-per-second");
+            String allocation = baseline.getProperty(op + ".bytes-per-op");
+            if (throughput == null || allocation == null) {
+                regressions.add(op + " has no recorded baseline");
+                return;
+            }
+            double throughputTolerance = tolerance(baseline, op + ".ops-per-second", threshold);
+            if (result.opsPerSecond < Double.parseDouble(throughput) * (1 - throughputTolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s throughput %.1f ops/s < baseline %s - %.0f%%",
+                        op, result.opsPerSecond, throughput, throughputTolerance * 100));
+            }
+            double allocationTolerance = tolerance(baseline, op + ".bytes-per-op", threshold);
+            if (result.bytesPerOp > Long.parseLong(allocation) * (1 + allocationTolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s allocation %d B/op > baseline %s + %.0f%%",
+                        op, result.bytesPerOp, allocation, allocationTolerance * 100));
+            }
+        });
+        assertTrue(regressions.isEmpty(), "Performance regressed (record a baseline on this runner with "
+                + "-Dperf.update-baseline=true if none exists): " + String.join("; ", regressions));
+    }
+
+    // The band recorded with the baseline, but never tighter than perf.threshold
+    private static double tolerance(Properties baseline, String key, double threshold) {
+        String recorded = baseline.getProperty(key + ".tolerance");
+        return recorded == null ? threshold : Math.max(threshold, Double.parseDouble(recorded));
+    }
+
+    // Best of several rounds for each operation, so one GC pause or noisy neighbour does not fail the build
+    private Map<String, Result> run() {
+        for (int i = 0; i < WARMUP_HASHES; i++) {
+            authService.signup(signupRequest("warmup", i));
+            authService.login(new LoginRequest(email("warmup", i), "password123"));
+        }
+
+        Map<String, List<Round>> rounds = new LinkedHashMap<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            String prefix = "round" + round;
+            List<String> tokens = new ArrayList<>(LOGINS);
+
+            rounds.computeIfAbsent("signup", op -> new ArrayList<>())
+                    .add(measure(SIGNUPS, i -> authService.signup(signupRequest(prefix, i))));
+            rounds.computeIfAbsent("login", op -> new ArrayList<>())
+                    .add(measure(LOGINS, i -> tokens.add(authService.login(
+                            new LoginRequest(email(prefix, i), "password123")).getToken())));
+            rounds.computeIfAbsent("validate", op -> new ArrayList<>()).add(measure(VALIDATIONS, i -> {
+                if (!jwtTokenProvider.validateToken(tokens.get(i % tokens.size()))) {
+                    fail("Token issued by the workload did not validate");
+                }
+            }));
+        }
+        Map<String, Result> results = new LinkedHashMap<>();
+        rounds.forEach((op, measured) -> results.put(op, Result.of(measured)));
+        return results;
+    }
+
+    private Round measure(int operations, Operation operation) {
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            operation.run(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Round(operations * 1_000_000_000.0 / elapsed, allocated / operations);
+    }
+
+    private static void writeBaseline(Path file, Map<String, Result> results) throws IOException {
+        Map<String, String> values = new TreeMap<>();
+        results.forEach((op, result) -> {
+            values.put(op + ".ops-per-second", String.format(Locale.ROOT, "%.1f", result.opsPerSecond));
+            values.put(op + ".ops-per-second.tolerance", String.format(Locale.ROOT, "%.3f", 2 * result.throughputSpread));
+            values.put(op + ".bytes-per-op", Long.toString(result.bytesPerOp));
+            values.put(op + ".bytes-per-op.tolerance", String.format(Locale.ROOT, "%.3f", 2 * result.allocationSpread));
+        });
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("# Written by AuthPerformanceGateTest (mvn test -Pperf-gate -Dperf.update-baseline=true)\n");
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                writer.write(value.getKey() + "=" + value.getValue() + "\n");
+            }
+        }
+    }
+
+    private static SignupRequest signupRequest(String prefix, int i) {
+        return new SignupRequest(email(prefix, i), "password123", "Perf", "Gate");
+    }
+
+    private static String email(String prefix, int i) {
+        return "perf-" + prefix + "-" + i + "@example.com";
+    }
+
+    private interface Operation {
+        void run(int i);
+    }
+
+    private record Round(double opsPerSecond, long bytesPerOp) {
+    }
+
+    // Best round, plus how far the worst round fell from it
+    private record Result(double opsPerSecond, double throughputSpread, long bytesPerOp, double allocationSpread) {
+
+        static Result of(List<Round> rounds) {
+            double fastest = rounds.stream().mapToDouble(Round::opsPerSecond).max().orElseThrow();
+            double slowest = rounds.stream().mapToDouble(Round::opsPerSecond).min().orElseThrow();
+            long leanest = rounds.stream().mapToLong(Round::bytesPerOp).min().orElseThrow();
+            long heaviest = rounds.stream().mapToLong(Round::bytesPerOp).max().orElseThrow();
+            return new Result(fastest, (fastest - slowest) / fastest,
+                    leanest, leanest == 0 ? 0 : (heaviest - leanest) / (double) leanest);
+        }
+    }
+
+}
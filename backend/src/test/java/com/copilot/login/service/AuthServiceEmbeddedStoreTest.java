@@ -0,0 +1,52 @@
+package com.copilot.login.service;
+
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.dto.LoginResponse;
+import com.copilot.login.dto.SignupRequest;
+import com.copilot.login.repository.EmbeddedUserStore;
+import com.copilot.login.repository.UserStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the full login/signup flow without MongoDB
+@SpringBootTest(properties = {
+        "user.store.type=embedded",
+        "user.store.embedded.path=",
+        "audit.enabled=false"
+})
+class AuthServiceEmbeddedStoreTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserStore userStore;
+
+    @Test
+    void testSignupThenLoginAgainstEmbeddedStore() {
+        assertInstanceOf(EmbeddedUserStore.class, userStore);
+
+        authService.signup(new SignupRequest("embedded@example.com", "password123", "Em", "Bedded"));
+        LoginResponse response = authService.login(new LoginRequest("embedded@example.com", "password123"));
+
+        assertNotNull(response.getToken());
+        assertEquals("Em", response.getFirstName());
+        assertThrows(RuntimeException.class,
+                () -> authService.signup(new SignupRequest("embedded@example.com", "other", "Du", "Plicate")));
+        assertThrows(RuntimeException.class,
+                () -> authService.login(new LoginRequest("embedded@example.com", "wrong")));
+    }
+
+    @Test
+    void testUnknownTenantIsRejectedLikeMongoStore() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> authService.signup(new SignupRequest("x@example.com", "password123", "X", "Y", "unknown")));
+        assertEquals("Unknown tenant", exception.getMessage());
+        assertThrows(RuntimeException.class,
+                () -> authService.login(new LoginRequest("x@example.com", "password123", "unknown")));
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.copilot.login.service;
 
+import com.copilot.login.cache.DeactivatedSubjects;
 import com.copilot.login.dto.LoginRequest;
 import com.copilot.login.dto.LoginResponse;
 import com.copilot.login.dto.SignupRequest;
@@ -34,6 +35,9 @@ class AuthServiceTest {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private DeactivatedSubjects deactivatedSubjects;
+
     @BeforeEach
     void setUp() {
         mongoTemplate.dropCollection("users");
@@ -309,4 +313,59 @@ class AuthServiceTest {
         assertTrue(jwtTokenProvider.validateToken(response2.getToken()));
     }
 
+    @Test
+    void testLoginRejectsDeactivatedUser() {
+        User user = new User();
+        user.setEmail("deactivated@example.com");
+        user.setPassword(passwordEncoder.encode("password123"));
+        user.setFirstName("Inactive");
+        user.setLastName("User");
+        user.setActive(false);
+        userRepository.save(user);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> authService.login(new LoginRequest("deactivated@example.com", "password123")));
+        assertEquals("Account is deactivated", exception.getMessage());
+    }
+
+    @Test
+    void testTokensOfDeactivatedUserAreRejected() {
+        User user = new User();
+        user.setEmail("revoked@example.com");
+        user.setPassword(passwordEncoder.encode("password123"));
+        user.setFirstName("Soon");
+        user.setLastName("Inactive");
+        User savedUser = userRepository.save(user);
+
+        String token = authService.login(new LoginRequest("revoked@example.com", "password123")).getToken();
+        assertTrue(jwtTokenProvider.validateToken(token));
+
+        savedUser.setActive(false);
+        userRepository.save(savedUser);
+        deactivatedSubjects.reload();
+        assertFalse(jwtTokenProvider.validateToken(token));
+
+        savedUser.setActive(true);
+        userRepository.save(savedUser);
+        deactivatedSubjects.reload();
+        assertTrue(jwtTokenProvider.validateToken(token));
+    }
+
+    @Test
+    void testDeactivationIsEnforcedByDefault() {
+        User user = new User();
+        user.setEmail("default-config@example.com");
+        user.setPassword(passwordEncoder.encode("password123"));
+        User savedUser = userRepository.save(user);
+        String token = authService.login(new LoginRequest("default-config@example.com", "password123")).getToken();
+
+        // Started by the shipped configuration; the reload stands in for the next refresh
+        assertTrue(deactivatedSubjects.isRunning());
+        savedUser.setActive(false);
+        userRepository.save(savedUser);
+        deactivatedSubjects.reload();
+
+        assertFalse(jwtTokenProvider.introspect(token).isActive());
+    }
+
 }
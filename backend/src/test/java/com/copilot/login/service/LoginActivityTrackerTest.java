@@ -0,0 +1,123 @@
+package com.copilot.login.service;
+
+import com.copilot.login.LoginServiceApplication;
+import com.copilot.login.dto.LoginRequest;
+import com.copilot.login.model.User;
+import com.copilot.login.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "login-activity.flush-interval-ms=3600000")
+class LoginActivityTrackerTest {
+
+    @Autowired
+    private LoginActivityTracker loginActivityTracker;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection("users");
+        loginActivityTracker.flush();
+    }
+
+    @Test
+    void testRepeatedLoginsAreCoalescedIntoOneUpdate() {
+        User user = new User();
+        user.setEmail("activity@example.com");
+        user.setPassword(passwordEncoder.encode("password123"));
+        user.setFirstName("Active");
+        user.setLastName("User");
+        User savedUser = userRepository.save(user);
+
+        long beforeLogin = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            authService.login(new LoginRequest("activity@example.com", "password123"));
+        }
+
+        assertEquals(1, loginActivityTracker.getPendingCount());
+        assertNull(userRepository.findById(savedUser.getId()).orElseThrow().getLastLoginAt());
+
+        loginActivityTracker.flush();
+
+        User updatedUser = userRepository.findById(savedUser.getId()).orElseThrow();
+        assertEquals(0, loginActivityTracker.getPendingCount());
+        assertEquals(3L, updatedUser.getLoginCount());
+        assertTrue(updatedUser.getLastLoginAt() >= beforeLogin);
+    }
+
+    @Test
+    void testFlushWithNothingPendingIsNoOp() {
+        loginActivityTracker.flush();
+        assertEquals(0, loginActivityTracker.getPendingCount());
+    }
+
+    @Test
+    void testLoginRecordedDuringShutdownIsFlushed() {
+        User user = new User();
+        user.setEmail("shutdown@example.com");
+        user.setPassword(passwordEncoder.encode("password123"));
+        User savedUser = userRepository.save(user);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                LoginServiceApplication.class, InFlightRequest.class)
+                .properties("server.port=0", "login-activity.flush-interval-ms=3600000")
+                .run();
+        LoginActivityTracker stoppingTracker = context.getBean(LoginActivityTracker.class);
+        context.getBean(InFlightRequest.class).onStop = () -> stoppingTracker.recordLogin(null, savedUser.getId());
+
+        context.close();
+
+        assertEquals(1L, userRepository.findById(savedUser.getId()).orElseThrow().getLoginCount());
+    }
+
+    // A request the web server is still draining when the context shuts down
+    static class InFlightRequest implements SmartLifecycle {
+
+        private volatile Runnable onStop;
+        private volatile boolean running;
+
+        @Override
+        public void start() {
+            running = true;
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            if (onStop != null) {
+                onStop.run();
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public int getPhase() {
+            return SmartLifecycle.DEFAULT_PHASE - 1024;
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.copilot.login.session;
+
+import com.copilot.login.LoginServiceApplication;
+import com.copilot.login.model.Session;
+import com.copilot.login.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "sessions.flush-interval-ms=3600000")
+class SessionRegistryTest {
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId("65a000000000000000000001");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+    }
+
+    @Test
+    void testSessionsAreWrittenInBatchesAndListed() {
+        sessionRegistry.open(user, "Firefox");
+        sessionRegistry.open(user, "Safari");
+        String subject = SessionRegistry.subjectKey(null, user.getEmail());
+
+        assertEquals(0, mongoTemplate.count(queryBySubject(subject), Session.class, "sessions"));
+        assertEquals(2, sessionRegistry.list(subject).size());
+
+        sessionRegistry.flush();
+
+        assertEquals(2, mongoTemplate.count(queryBySubject(subject), Session.class, "sessions"));
+        List<Session> listed = sessionRegistry.list(subject);
+        assertEquals(2, listed.size());
+        assertTrue(listed.stream().anyMatch(session -> "Firefox".equals(session.getDevice())));
+    }
+
+    @Test
+    void testRevokeOneSession() {
+        Session kept = sessionRegistry.open(user, "Laptop");
+        Session revoked = sessionRegistry.open(user, "Phone");
+        String subject = SessionRegistry.subjectKey(null, user.getEmail());
+        sessionRegistry.flush();
+
+        assertTrue(sessionRegistry.revoke(subject, revoked.getId()));
+        assertFalse(sessionRegistry.revoke("someone-else@example.com", kept.getId()));
+
+        assertTrue(sessionRegistry.isRevoked(subject, revoked.getId(), revoked.getCreatedAt()));
+        assertFalse(sessionRegistry.isRevoked(subject, kept.getId(), kept.getCreatedAt()));
+
+        sessionRegistry.flush();
+        List<Session> listed = sessionRegistry.list(subject);
+        assertEquals(1, listed.size());
+        assertEquals(kept.getId(), listed.get(0).getId());
+    }
+
+    @Test
+    void testRevokeAllSessions() throws InterruptedException {
+        Session persisted = sessionRegistry.open(user, "Laptop");
+        sessionRegistry.flush();
+        Session pending = sessionRegistry.open(user, "Phone");
+        String subject = SessionRegistry.subjectKey(null, user.getEmail());
+
+        sessionRegistry.revokeAll(subject);
+        sessionRegistry.flush();
+
+        assertTrue(sessionRegistry.isRevoked(subject, persisted.getId(), persisted.getCreatedAt()));
+        assertTrue(sessionRegistry.isRevoked(subject, pending.getId(), pending.getCreatedAt()));
+        assertTrue(sessionRegistry.list(subject).isEmpty());
+
+        // Tokens issued after the revocation stay valid
+        Thread.sleep(1000);
+        Session later = sessionRegistry.open(user, "Tablet");
+        assertFalse(sessionRegistry.isRevoked(subject, later.getId(), System.currentTimeMillis() / 1000 * 1000));
+    }
+
+    @Test
+    void testInMemorySessionsAreCappedAndExpire() throws InterruptedException {
+        SessionRegistry inMemory = new SessionRegistry();
+        ReflectionTestUtils.setField(inMemory, "storeType", "embedded");
+        ReflectionTestUtils.setField(inMemory, "maxPerSubject", 3);
+        ReflectionTestUtils.setField(inMemory, "jwtExpiration", 86400000L);
+        String subject = SessionRegistry.subjectKey(null, user.getEmail());
+
+        Session oldest = inMemory.open(user, "First");
+        Thread.sleep(2);
+        for (int i = 0; i < 3; i++) {
+            inMemory.open(user, "Later");
+        }
+        assertEquals(3, inMemory.list(subject).size());
+        assertFalse(inMemory.owns(subject, oldest.getId()));
+        assertTrue(inMemory.isRevoked(subject, oldest.getId(), oldest.getCreatedAt()));
+
+        ReflectionTestUtils.setField(inMemory, "jwtExpiration", 1L);
+        Session expiring = inMemory.open(user, "Short");
+        Thread.sleep(5);
+        inMemory.flush();
+        assertFalse(inMemory.owns(subject, expiring.getId()));
+    }
+
+    @Test
+    void testSessionOpenedDuringShutdownIsWritten() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                LoginServiceApplication.class, InFlightRequest.class)
+                .properties("server.port=0", "sessions.flush-interval-ms=3600000")
+                .run();
+        SessionRegistry stoppingRegistry = context.getBean(SessionRegistry.class);
+        context.getBean(InFlightRequest.class).onStop = () -> stoppingRegistry.open(user, "Shutdown");
+
+        context.close();
+
+        String subject = SessionRegistry.subjectKey(null, user.getEmail());
+        assertEquals(1, mongoTemplate.count(queryBySubject(subject), Session.class, "sessions"));
+    }
+
+    private static Query queryBySubject(String subject) {
+        return Query.query(Criteria.where("s").is(subject));
+    }
+
+    // Opens a session from a request the web server is still draining at shutdown
+    static class InFlightRequest implements SmartLifecycle {
+
+        private volatile Runnable onStop;
+        private volatile boolean running;
+
+        @Override
+        public void start() {
+            running = true;
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            if (onStop != null) {
+                onStop.run();
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public int getPhase() {
+            return SmartLifecycle.DEFAULT_PHASE - 1024;
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.copilot.login.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimitTest {
+
+    @Test
+    void testRejectsOnceLimitIsInFlight() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 1, 10, 0.2, 100);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsSteady() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 5, 100, 0.2, 100);
+
+        for (int i = 0; i < 200; i++) {
+            saturateAndRelease(limit, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertTrue(limit.getLimit() > 10);
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 5, 100, 0.2, 100);
+        for (int i = 0; i < 100; i++) {
+            saturateAndRelease(limit, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int steady = limit.getLimit();
+
+        for (int i = 0; i < 100; i++) {
+            saturateAndRelease(limit, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        assertTrue(limit.getLimit() < steady);
+        assertTrue(limit.getLimit() >= 5);
+    }
+
+    private static void saturateAndRelease(GradientConcurrencyLimit limit, long rttNanos) {
+        int acquired = 0;
+        while (limit.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limit.release(rttNanos, i == 0);
+        }
+    }
+
+}